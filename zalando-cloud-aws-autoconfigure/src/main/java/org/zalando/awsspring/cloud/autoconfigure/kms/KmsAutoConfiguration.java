@@ -1,13 +1,20 @@
 package org.zalando.awsspring.cloud.autoconfigure.kms;
 
+import java.util.function.Supplier;
+
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 
 import io.awspring.cloud.autoconfigure.AwsAsyncClientCustomizer;
 import io.awspring.cloud.autoconfigure.AwsSyncClientCustomizer;
@@ -15,6 +22,7 @@ import io.awspring.cloud.autoconfigure.core.AwsClientBuilderConfigurer;
 import io.awspring.cloud.autoconfigure.core.AwsConnectionDetails;
 import io.awspring.cloud.autoconfigure.core.CredentialsProviderAutoConfiguration;
 import io.awspring.cloud.autoconfigure.core.RegionProviderAutoConfiguration;
+import software.amazon.awssdk.awscore.AwsClient;
 import software.amazon.awssdk.services.kms.KmsAsyncClient;
 import software.amazon.awssdk.services.kms.KmsClient;
 
@@ -30,26 +38,82 @@ public class KmsAutoConfiguration {
 	public KmsClient kmsClient(KmsProperties properties, AwsClientBuilderConfigurer awsClientBuilderConfigurer,
 			ObjectProvider<AwsConnectionDetails> connectionDetails,
 			ObjectProvider<KmsClientCustomizer> kmsClientCustomizers,
-			ObjectProvider<AwsSyncClientCustomizer> awsSyncClientCustomizers) {
-		return awsClientBuilderConfigurer.configureSyncClient(KmsClient.builder(),
-				properties,
-				connectionDetails.getIfAvailable(),
-				kmsClientCustomizers.orderedStream(),
-				awsSyncClientCustomizers.orderedStream())
-				.build();
+			ObjectProvider<AwsSyncClientCustomizer> awsSyncClientCustomizers,
+			ObjectProvider<ApplicationStartup> applicationStartup) {
+		return build("sync", applicationStartup,
+				() -> awsClientBuilderConfigurer.configureSyncClient(KmsClient.builder(),
+						properties,
+						connectionDetails.getIfAvailable(),
+						kmsClientCustomizers.orderedStream(),
+						awsSyncClientCustomizers.orderedStream())
+						.build());
 	}
 
+	/**
+	 * The async client is created lazily, so that its HTTP client (e.g. a Netty event loop group) is only set up if the
+	 * client is actually used, and not for applications that only decrypt properties on bootstrap. It is only created if
+	 * an async HTTP client is on the class path, which the lightweight starter does not ship.
+	 */
 	@ConditionalOnMissingBean
+	@Conditional(OnAsyncHttpClientCondition.class)
+	@Lazy
 	@Bean
 	public KmsAsyncClient kmsAsyncClient(KmsProperties properties, AwsClientBuilderConfigurer awsClientBuilderConfigurer,
 			ObjectProvider<AwsConnectionDetails> connectionDetails,
 			ObjectProvider<KmsAsyncClientCustomizer> kmsAsyncClientCustomizers,
-			ObjectProvider<AwsAsyncClientCustomizer> awsAsyncClientCustomizers) {
-		return awsClientBuilderConfigurer.configureAsyncClient(KmsAsyncClient.builder(),
-				properties,
-				connectionDetails.getIfAvailable(),
-				kmsAsyncClientCustomizers.orderedStream(),
-				awsAsyncClientCustomizers.orderedStream()).build();
+			ObjectProvider<AwsAsyncClientCustomizer> awsAsyncClientCustomizers,
+			ObjectProvider<ApplicationStartup> applicationStartup) {
+		return build("async", applicationStartup,
+				() -> awsClientBuilderConfigurer.configureAsyncClient(KmsAsyncClient.builder(),
+						properties,
+						connectionDetails.getIfAvailable(),
+						kmsAsyncClientCustomizers.orderedStream(),
+						awsAsyncClientCustomizers.orderedStream()).build());
+	}
+
+	/**
+	 * Builds a client within a {@link StartupStep} named {@code zalando.aws.kms.client.build} and records a
+	 * {@link KmsClientBuildEvent}, both covering the resolution of credentials provider and region.
+	 */
+	private static <T extends AwsClient> T build(String clientType,
+			ObjectProvider<ApplicationStartup> applicationStartup, Supplier<T> builder) {
+		StartupStep step = applicationStartup.getIfAvailable(() -> ApplicationStartup.DEFAULT)
+				.start("zalando.aws.kms.client.build")
+				.tag("clientType", clientType);
+		KmsClientBuildEvent event = new KmsClientBuildEvent();
+		event.begin();
+		try {
+			T client = builder.get();
+			String region = String.valueOf(client.serviceClientConfiguration().region());
+			step.tag("region", region);
+			event.region = region;
+			return client;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.clientType = clientType;
+				event.commit();
+			}
+			step.end();
+		}
+	}
+
+	static class OnAsyncHttpClientCondition extends AnyNestedCondition {
+
+		OnAsyncHttpClientCondition() {
+			super(ConfigurationPhase.REGISTER_BEAN);
+		}
+
+		@ConditionalOnClass(name = "software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient")
+		static class OnNettyHttpClient {
+
+		}
+
+		@ConditionalOnClass(name = "software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient")
+		static class OnCrtHttpClient {
+
+		}
+
 	}
 
 }
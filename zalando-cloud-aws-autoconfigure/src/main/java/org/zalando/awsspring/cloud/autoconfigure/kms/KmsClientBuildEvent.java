@@ -0,0 +1,24 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event recorded for building a KMS client, including the resolution of its credentials provider and region.
+ */
+@Name("org.zalando.awsspring.cloud.kms.ClientBuild")
+@Label("KMS Client Build")
+@Category({ "Zalando Cloud AWS", "KMS" })
+@Description("Build of a KMS client by KmsAutoConfiguration")
+class KmsClientBuildEvent extends Event {
+
+	@Label("Client Type")
+	String clientType;
+
+	@Label("Region")
+	String region;
+
+}
@@ -0,0 +1,46 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
+import org.springframework.context.annotation.Bean;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsProperties;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptor;
+import org.zalando.awsspring.cloud.config.server.encrypt.KmsEnvironmentEncryptor;
+
+import software.amazon.awssdk.services.kms.KmsClient;
+
+/**
+ * Registers a {@link KmsEnvironmentEncryptor} in a Spring Cloud Config Server, so that every {@code {cipher}} value
+ * is decrypted only once per config version instead of once per client fetch.
+ * <p>
+ * Runs after the server's encryption auto-configuration, so that its {@code CipherEnvironmentEncryptor} is still
+ * registered and decrypts the values the {@link KmsEnvironmentEncryptor} leaves to it.
+ */
+@AutoConfiguration(after = KmsAutoConfiguration.class,
+		afterName = "org.springframework.cloud.config.server.config.EncryptionAutoConfiguration")
+@ConditionalOnClass({ EnvironmentEncryptor.class, KmsTextEncryptor.class })
+@ConditionalOnProperty(prefix = "encrypt.kms.server", name = "decrypt-once", havingValue = "true")
+@EnableConfigurationProperties({ KmsProperties.class })
+public class KmsConfigServerAutoConfiguration {
+
+	@ConditionalOnMissingBean
+	@ConditionalOnBean(KmsClient.class)
+	@Bean
+	public KmsEnvironmentEncryptor kmsEnvironmentEncryptor(KmsClient kmsClient,
+			ObjectProvider<KmsTextEncryptor> textEncryptor, KmsProperties properties) {
+		KmsTextEncryptor encryptor = textEncryptor.getIfUnique(() -> {
+			KmsTextEncryptor serverEncryptor = new KmsTextEncryptor(kmsClient, properties.getKeyId(),
+					properties.getEncryptionAlgorithm());
+			serverEncryptor.setCompression(properties.getCompression());
+			return serverEncryptor;
+		});
+		return new KmsEnvironmentEncryptor(encryptor, properties.getServer().getCachedVersions());
+	}
+
+}
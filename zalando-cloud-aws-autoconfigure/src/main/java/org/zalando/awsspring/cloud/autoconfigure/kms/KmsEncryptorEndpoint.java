@@ -0,0 +1,116 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsDecryptionCache;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptor;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptorStatistics;
+
+/**
+ * {@link Endpoint @Endpoint} to inspect the call statistics and to control the cache of a {@link KmsTextEncryptor}.
+ */
+@Endpoint(id = "kmsencryptor")
+public class KmsEncryptorEndpoint {
+
+	private final KmsTextEncryptor encryptor;
+
+	public KmsEncryptorEndpoint(KmsTextEncryptor encryptor) {
+		this.encryptor = encryptor;
+	}
+
+	@ReadOperation
+	public EncryptorDescriptor encryptor() {
+		Map<String, KeyDescriptor> keys = new LinkedHashMap<>();
+		encryptor.getStatistics().getKeys().forEach((keyId, statistics) -> keys.put(keyId, describe(statistics)));
+
+		KmsDecryptionCache cache = encryptor.getCache();
+		return new EncryptorDescriptor(keys, cache == null ? null : describe(cache));
+	}
+
+	/**
+	 * Evicts the given tokens from the cache, or all of them if no tokens are given, or pre-warms the cache by
+	 * decrypting the given tokens.
+	 */
+	@WriteOperation
+	public CacheOperationDescriptor cache(CacheAction action, @OptionalParameter List<String> tokens) {
+		KmsDecryptionCache cache = encryptor.getCache();
+		if (cache == null) {
+			return new CacheOperationDescriptor(action, 0, Map.of());
+		}
+
+		if (action == CacheAction.EVICT) {
+			if (tokens == null || tokens.isEmpty()) {
+				return new CacheOperationDescriptor(action, cache.clear(), Map.of());
+			}
+			int evicted = (int) tokens.stream().filter(cache::evict).count();
+			return new CacheOperationDescriptor(action, evicted, Map.of());
+		}
+
+		int warmed = 0;
+		Map<String, String> failures = new LinkedHashMap<>();
+		for (String token : tokens == null ? List.<String>of() : tokens) {
+			try {
+				encryptor.decrypt(token);
+				warmed++;
+			} catch (RuntimeException e) {
+				failures.put(token, e.getMessage());
+			}
+		}
+		return new CacheOperationDescriptor(action, warmed, failures);
+	}
+
+	private static KeyDescriptor describe(KmsTextEncryptorStatistics.KeyStatistics statistics) {
+		long calls = statistics.getCalls();
+		long[] buckets = statistics.getLatencyBuckets();
+		long[] bounds = KmsTextEncryptorStatistics.LATENCY_BUCKET_BOUNDS;
+
+		Map<String, Long> latency = new LinkedHashMap<>();
+		for (int i = 0; i < bounds.length; i++) {
+			latency.put("<=" + bounds[i] + "ms", buckets[i]);
+		}
+		latency.put(">" + bounds[bounds.length - 1] + "ms", buckets[bounds.length]);
+
+		double meanMillis = calls == 0 ? 0 : toMillis(statistics.getTotalNanos()) / calls;
+		return new KeyDescriptor(calls, statistics.getFailures(), statistics.getInFlight(), meanMillis,
+				toMillis(statistics.getMaxNanos()), latency);
+	}
+
+	private static CacheDescriptor describe(KmsDecryptionCache cache) {
+		long hits = cache.getHits();
+		long lookups = hits + cache.getMisses();
+		return new CacheDescriptor(cache.size(), cache.getMaximumSize(), cache.getTimeToLive(), hits,
+				cache.getMisses(), lookups == 0 ? 0 : (double) hits / lookups, cache.getEvictions());
+	}
+
+	private static double toMillis(long nanos) {
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public enum CacheAction {
+
+		EVICT, PREWARM
+	}
+
+	public record EncryptorDescriptor(Map<String, KeyDescriptor> keys, CacheDescriptor cache) {
+	}
+
+	public record KeyDescriptor(long calls, long failures, int inFlight, double meanMillis, double maxMillis,
+			Map<String, Long> latency) {
+	}
+
+	public record CacheDescriptor(int size, int maximumSize, Duration timeToLive, long hits, long misses,
+			double hitRatio, long evictions) {
+	}
+
+	public record CacheOperationDescriptor(CacheAction action, int affected, Map<String, String> failures) {
+	}
+
+}
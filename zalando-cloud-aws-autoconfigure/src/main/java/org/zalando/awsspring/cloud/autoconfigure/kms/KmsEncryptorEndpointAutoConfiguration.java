@@ -0,0 +1,24 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
+import org.springframework.context.annotation.Bean;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptor;
+
+@AutoConfiguration
+@ConditionalOnClass({ Endpoint.class, KmsTextEncryptor.class })
+@ConditionalOnAvailableEndpoint(endpoint = KmsEncryptorEndpoint.class)
+public class KmsEncryptorEndpointAutoConfiguration {
+
+	@ConditionalOnMissingBean
+	@ConditionalOnSingleCandidate(KmsTextEncryptor.class)
+	@Bean
+	public KmsEncryptorEndpoint kmsEncryptorEndpoint(KmsTextEncryptor encryptor) {
+		return new KmsEncryptorEndpoint(encryptor);
+	}
+
+}
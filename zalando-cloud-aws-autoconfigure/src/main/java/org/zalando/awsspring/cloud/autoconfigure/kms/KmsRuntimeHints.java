@@ -0,0 +1,46 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.util.ClassUtils;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsEncryptConfiguration;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsProperties;
+
+/**
+ * {@link RuntimeHintsRegistrar} for the KMS integration.
+ * <p>
+ * Bootstrap configurations are registered via {@code spring.factories} and instantiated reflectively in a bootstrap
+ * context that is not processed ahead of time, so they need explicit reflection hints in a native image. The AWS SDK
+ * ships its own native image metadata for the KMS model classes. Registered via {@code META-INF/spring/aot.factories},
+ * so that the hints apply whether or not {@link KmsAutoConfiguration} is processed ahead of time.
+ */
+public class KmsRuntimeHints implements RuntimeHintsRegistrar {
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+		hints.reflection().registerType(KmsAutoConfiguration.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+				MemberCategory.INVOKE_PUBLIC_METHODS);
+		hints.reflection().registerType(org.zalando.awsspring.cloud.autoconfigure.kms.KmsProperties.class,
+				MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+		if (ClassUtils.isPresent("org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptor", classLoader)) {
+			hints.reflection().registerType(KmsEncryptConfiguration.class,
+					MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+			hints.reflection().registerType(KmsProperties.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+					MemberCategory.INVOKE_PUBLIC_METHODS);
+			hints.reflection().registerType(KmsProperties.CircuitBreaker.class,
+					MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+			hints.reflection().registerType(KmsProperties.Cache.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+					MemberCategory.INVOKE_PUBLIC_METHODS);
+			hints.reflection().registerType(KmsProperties.Server.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+					MemberCategory.INVOKE_PUBLIC_METHODS);
+			hints.reflection().registerType(KmsProperties.DataKey.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+					MemberCategory.INVOKE_PUBLIC_METHODS);
+		}
+
+		hints.resources().registerPattern("software/amazon/awssdk/global/handlers/execution.interceptors");
+		hints.resources().registerPattern("software/amazon/awssdk/services/kms/execution.interceptors");
+	}
+
+}
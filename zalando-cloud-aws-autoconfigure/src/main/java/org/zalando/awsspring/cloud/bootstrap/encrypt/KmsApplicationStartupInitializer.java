@@ -0,0 +1,44 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.metrics.ApplicationStartup;
+
+/**
+ * Records the calls of the bootstrap {@link KmsTextEncryptor} on the {@link ApplicationStartup} of the application
+ * context, which the bootstrap context does not share, until the application context has been refreshed.
+ * <p>
+ * Bootstrap initializers are applied to the application context, so this initializer runs before {@code {cipher}}
+ * properties are decrypted. Calls after the refresh, e.g. from the actuator endpoint, are recorded as JFR events only.
+ */
+public class KmsApplicationStartupInitializer
+		implements ApplicationContextInitializer<ConfigurableApplicationContext>, Ordered {
+
+	private final ObjectProvider<KmsTextEncryptor> textEncryptor;
+
+	public KmsApplicationStartupInitializer(ObjectProvider<KmsTextEncryptor> textEncryptor) {
+		this.textEncryptor = textEncryptor;
+	}
+
+	@Override
+	public void initialize(ConfigurableApplicationContext applicationContext) {
+		textEncryptor.ifAvailable(encryptor -> {
+			encryptor.setApplicationStartup(applicationContext.getApplicationStartup());
+			applicationContext.addApplicationListener(event -> {
+				if (event instanceof ContextRefreshedEvent refreshed
+						&& refreshed.getApplicationContext() == applicationContext) {
+					encryptor.setApplicationStartup(ApplicationStartup.DEFAULT);
+				}
+			});
+		});
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+}
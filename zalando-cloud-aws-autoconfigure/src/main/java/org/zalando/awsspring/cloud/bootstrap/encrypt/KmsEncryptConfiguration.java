@@ -1,5 +1,8 @@
 package org.zalando.awsspring.cloud.bootstrap.encrypt;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -14,10 +17,62 @@ import software.amazon.awssdk.services.kms.KmsClient;
 @ConditionalOnProperty(prefix = "encrypt.kms", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class KmsEncryptConfiguration {
 
+	@ConditionalOnMissingBean(TextEncryptor.class)
+	@Bean
+	public KmsTextEncryptor textEncryptor(KmsClient kmsClient, KmsProperties properties,
+			ObjectProvider<KmsCircuitBreaker> circuitBreaker) {
+		KmsTextEncryptor encryptor = new KmsTextEncryptor(kmsClient, properties.getKeyId(),
+				properties.getEncryptionAlgorithm());
+		encryptor.setCompression(properties.getCompression());
+		KmsCircuitBreaker breaker = circuitBreaker.getIfAvailable();
+		boolean fallbackToLastDecrypted = breaker != null
+				&& properties.getCircuitBreaker().isFallbackToLastDecrypted();
+		if (breaker != null) {
+			encryptor.setCircuitBreaker(breaker);
+			encryptor.setFallbackToLastDecrypted(fallbackToLastDecrypted);
+		}
+
+		KmsProperties.Cache cache = properties.getCache();
+		if (cache.isEnabled()) {
+			encryptor.setCache(new KmsDecryptionCache(cache.getMaximumSize(), cache.getTimeToLive()));
+		} else if (fallbackToLastDecrypted) {
+			encryptor.setCache(new KmsDecryptionCache(cache.getMaximumSize(), Duration.ZERO));
+		}
+		return encryptor;
+	}
+
+	@Bean
+	public KmsApplicationStartupInitializer kmsApplicationStartupInitializer(
+			ObjectProvider<KmsTextEncryptor> textEncryptor) {
+		return new KmsApplicationStartupInitializer(textEncryptor);
+	}
+
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "encrypt.kms.data-key", name = "enabled", havingValue = "true")
+	@Bean
+	public KmsDataKeyEncryptor kmsDataKeyEncryptor(KmsClient kmsClient, KmsProperties properties) {
+		KmsProperties.DataKey dataKey = properties.getDataKey();
+		return new KmsDataKeyEncryptor(kmsClient, properties.getKeyId(), dataKey.getEncryptionContext(),
+				dataKey.getMaxMessages(), dataKey.getMaxBytes(), dataKey.getMaxAge());
+	}
+
+	/**
+	 * Not a default candidate, so that {@code {cipher}} properties keep being decrypted by {@link #textEncryptor}.
+	 */
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "encrypt.kms.data-key", name = "enabled", havingValue = "true")
+	@Bean(defaultCandidate = false)
+	public KmsDataKeyTextEncryptor kmsDataKeyTextEncryptor(KmsDataKeyEncryptor kmsDataKeyEncryptor) {
+		return new KmsDataKeyTextEncryptor(kmsDataKeyEncryptor);
+	}
+
 	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "encrypt.kms.circuit-breaker", name = "enabled", havingValue = "true")
 	@Bean
-	public TextEncryptor textEncryptor(KmsClient kmsClient, KmsProperties properties) {
-		return new KmsTextEncryptor(kmsClient, properties.getKeyId(), properties.getEncryptionAlgorithm());
+	public KmsCircuitBreaker kmsCircuitBreaker(KmsClient kmsClient, KmsProperties properties) {
+		KmsProperties.CircuitBreaker circuitBreaker = properties.getCircuitBreaker();
+		return new KmsCircuitBreaker(kmsClient, circuitBreaker.getFailureThreshold(),
+				circuitBreaker.getWaitDuration());
 	}
 
 }
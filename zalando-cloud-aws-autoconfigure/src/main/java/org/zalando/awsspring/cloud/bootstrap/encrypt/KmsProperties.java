@@ -1,5 +1,9 @@
 package org.zalando.awsspring.cloud.bootstrap.encrypt;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(KmsProperties.PREFIX)
@@ -11,6 +15,16 @@ public class KmsProperties {
 
 	private String encryptionAlgorithm;
 
+	private Compression compression = Compression.NONE;
+
+	private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+	private final Cache cache = new Cache();
+
+	private final Server server = new Server();
+
+	private final DataKey dataKey = new DataKey();
+
 	public String getKeyId() {
 		return keyId;
 	}
@@ -26,4 +40,180 @@ public class KmsProperties {
 	public void setEncryptionAlgorithm(String value) {
 		this.encryptionAlgorithm = value;
 	}
+
+	public Compression getCompression() {
+		return compression;
+	}
+
+	public void setCompression(Compression value) {
+		this.compression = value;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public Cache getCache() {
+		return cache;
+	}
+
+	public Server getServer() {
+		return server;
+	}
+
+	public DataKey getDataKey() {
+		return dataKey;
+	}
+
+	public static class CircuitBreaker {
+
+		private boolean enabled;
+
+		private int failureThreshold = 5;
+
+		private Duration waitDuration = Duration.ofSeconds(30);
+
+		private boolean fallbackToLastDecrypted;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean value) {
+			this.enabled = value;
+		}
+
+		public int getFailureThreshold() {
+			return failureThreshold;
+		}
+
+		public void setFailureThreshold(int value) {
+			this.failureThreshold = value;
+		}
+
+		public Duration getWaitDuration() {
+			return waitDuration;
+		}
+
+		public void setWaitDuration(Duration value) {
+			this.waitDuration = value;
+		}
+
+		public boolean isFallbackToLastDecrypted() {
+			return fallbackToLastDecrypted;
+		}
+
+		public void setFallbackToLastDecrypted(boolean value) {
+			this.fallbackToLastDecrypted = value;
+		}
+	}
+
+	public static class Cache {
+
+		private boolean enabled;
+
+		private int maximumSize = 1000;
+
+		private Duration timeToLive = Duration.ofMinutes(10);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean value) {
+			this.enabled = value;
+		}
+
+		public int getMaximumSize() {
+			return maximumSize;
+		}
+
+		public void setMaximumSize(int value) {
+			this.maximumSize = value;
+		}
+
+		public Duration getTimeToLive() {
+			return timeToLive;
+		}
+
+		public void setTimeToLive(Duration value) {
+			this.timeToLive = value;
+		}
+	}
+
+	public static class Server {
+
+		private boolean decryptOnce;
+
+		private int cachedVersions = 16;
+
+		public boolean isDecryptOnce() {
+			return decryptOnce;
+		}
+
+		public void setDecryptOnce(boolean value) {
+			this.decryptOnce = value;
+		}
+
+		public int getCachedVersions() {
+			return cachedVersions;
+		}
+
+		public void setCachedVersions(int value) {
+			this.cachedVersions = value;
+		}
+	}
+
+	public static class DataKey {
+
+		private boolean enabled;
+
+		private long maxMessages = 10_000;
+
+		private long maxBytes = 100L * 1024 * 1024;
+
+		private Duration maxAge = Duration.ofMinutes(5);
+
+		private Map<String, String> encryptionContext = new HashMap<>();
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean value) {
+			this.enabled = value;
+		}
+
+		public long getMaxMessages() {
+			return maxMessages;
+		}
+
+		public void setMaxMessages(long value) {
+			this.maxMessages = value;
+		}
+
+		public long getMaxBytes() {
+			return maxBytes;
+		}
+
+		public void setMaxBytes(long value) {
+			this.maxBytes = value;
+		}
+
+		public Duration getMaxAge() {
+			return maxAge;
+		}
+
+		public void setMaxAge(Duration value) {
+			this.maxAge = value;
+		}
+
+		public Map<String, String> getEncryptionContext() {
+			return encryptionContext;
+		}
+
+		public void setEncryptionContext(Map<String, String> value) {
+			this.encryptionContext = value;
+		}
+	}
 }
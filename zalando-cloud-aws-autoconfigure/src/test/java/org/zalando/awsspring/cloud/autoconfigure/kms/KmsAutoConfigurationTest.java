@@ -7,6 +7,7 @@ import java.net.URI;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
@@ -64,6 +65,17 @@ class KmsAutoConfigurationTest {
         });
     }
 
+    @Test
+    void createsKmsAsyncClientLazily() {
+        this.contextRunner.run(context -> {
+            assertThat(context.getBeanFactory().containsSingleton("kmsClient")).isTrue();
+            assertThat(context.getBeanFactory().containsSingleton("kmsAsyncClient")).isFalse();
+
+            assertThat(context.getBean(KmsAsyncClient.class)).isNotNull();
+            assertThat(context.getBeanFactory().containsSingleton("kmsAsyncClient")).isTrue();
+        });
+    }
+
     @Test
     void withCustomEndpoint() {
         this.contextRunner.withPropertyValues("spring.cloud.aws.kms.endpoint:http://localhost:8090").run(context -> {
@@ -94,6 +106,17 @@ class KmsAutoConfigurationTest {
         });
     }
 
+    @Test
+    void recordsClientBuildAsStartupStep() {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(100);
+        this.contextRunner.withInitializer(context -> context.setApplicationStartup(applicationStartup)).run(context -> {
+            assertThat(context).hasSingleBean(KmsClient.class);
+            assertThat(applicationStartup.getBufferedTimeline().getEvents())
+                    .filteredOn(event -> event.getStartupStep().getName().equals("zalando.aws.kms.client.build"))
+                    .isNotEmpty();
+        });
+    }
+
     @Test
     void usesCustomSyncKmsClientBeanWhenProvided() {
         this.contextRunner.withUserConfiguration(CustomKmsClientConfiguration.class).run(context -> {
@@ -0,0 +1,123 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.config.EncryptionAutoConfiguration;
+import org.springframework.cloud.config.server.encryption.CipherEnvironmentEncryptor;
+import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
+import org.springframework.cloud.config.server.encryption.TextEncryptorLocator;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+import org.zalando.awsspring.cloud.config.server.encrypt.KmsEnvironmentEncryptor;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+
+/**
+ * Tests for {@link KmsConfigServerAutoConfiguration}.
+ */
+class KmsConfigServerAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(KmsConfigServerAutoConfiguration.class,
+                    EncryptionAutoConfiguration.class))
+            .withUserConfiguration(ServerConfiguration.class);
+
+    @Test
+    void isDisabledByDefault() {
+        this.contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(KmsEnvironmentEncryptor.class);
+            assertThat(context).hasSingleBean(CipherEnvironmentEncryptor.class);
+        });
+    }
+
+    @Test
+    void decryptsOncePerVersionAndLeavesPrefixedValuesToServer() {
+        this.contextRunner.withPropertyValues("encrypt.kms.server.decrypt-once:true").run(context -> {
+            assertThat(context).hasSingleBean(KmsEnvironmentEncryptor.class);
+            assertThat(context).hasSingleBean(CipherEnvironmentEncryptor.class);
+
+            for (int i = 0; i < 3; i++) {
+                Map<?, ?> source = decrypt(context, environment("v1")).getPropertySources().get(0).getSource();
+                assertThat(source.get("kms.password")).isEqualTo("secret");
+                assertThat(source.get("server.password")).isEqualTo("other");
+            }
+
+            verify(context.getBean(KmsClient.class), times(1)).decrypt(any(DecryptRequest.class));
+        });
+    }
+
+    /**
+     * Applies the encryptors in the order of the server's {@code EnvironmentEncryptorEnvironmentRepository}.
+     */
+    private static Environment decrypt(ApplicationContext context, Environment environment) {
+        Environment result = environment;
+        for (EnvironmentEncryptor encryptor : context.getBeanProvider(EnvironmentEncryptor.class)
+                .orderedStream()
+                .toList()) {
+            result = encryptor.decrypt(result);
+        }
+        return result;
+    }
+
+    private static Environment environment(String version) {
+        Environment environment = new Environment("app", new String[] { "default" }, "main", version, null);
+        environment.add(new PropertySource("source", Map.of("kms.password", "{cipher}c2VjcmV0",
+                "server.password", "{cipher}{key:other}" + encode("other"))));
+        return environment;
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TestConfiguration
+    static class ServerConfiguration {
+
+        @Bean
+        KmsClient kmsClient() {
+            KmsClient kmsClient = mock(KmsClient.class);
+            when(kmsClient.decrypt(any(DecryptRequest.class)))
+                    .thenReturn(DecryptResponse.builder().plaintext(SdkBytes.fromUtf8String("secret")).build());
+            return kmsClient;
+        }
+
+        /**
+         * The server's own encryptor, it "decrypts" Base64.
+         */
+        @Bean
+        TextEncryptorLocator textEncryptorLocator() {
+            TextEncryptor encryptor = new TextEncryptor() {
+
+                @Override
+                public String encrypt(String text) {
+                    return encode(text);
+                }
+
+                @Override
+                public String decrypt(String encryptedText) {
+                    return new String(Base64.getDecoder().decode(encryptedText), StandardCharsets.UTF_8);
+                }
+            };
+            return keys -> encryptor;
+        }
+    }
+}
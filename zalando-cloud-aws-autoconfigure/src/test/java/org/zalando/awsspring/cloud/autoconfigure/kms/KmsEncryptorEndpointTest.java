@@ -0,0 +1,89 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.zalando.awsspring.cloud.autoconfigure.kms.KmsEncryptorEndpoint.CacheAction;
+import org.zalando.awsspring.cloud.autoconfigure.kms.KmsEncryptorEndpoint.CacheDescriptor;
+import org.zalando.awsspring.cloud.autoconfigure.kms.KmsEncryptorEndpoint.CacheOperationDescriptor;
+import org.zalando.awsspring.cloud.autoconfigure.kms.KmsEncryptorEndpoint.EncryptorDescriptor;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsDecryptionCache;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptor;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptorStatistics;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+
+/**
+ * Tests for {@link KmsEncryptorEndpoint}.
+ */
+class KmsEncryptorEndpointTest {
+
+    private static final String TOKEN = Base64.getEncoder().encodeToString("cipher".getBytes());
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(KmsEncryptorEndpointAutoConfiguration.class));
+
+    @Test
+    void endpointIsNotCreatedWhenNotExposed() {
+        this.contextRunner.withUserConfiguration(EncryptorConfiguration.class)
+                .run(context -> assertThat(context).doesNotHaveBean(KmsEncryptorEndpoint.class));
+    }
+
+    @Test
+    void endpointIsNotCreatedWithoutEncryptor() {
+        this.contextRunner.withPropertyValues("management.endpoints.web.exposure.include:kmsencryptor")
+                .run(context -> assertThat(context).doesNotHaveBean(KmsEncryptorEndpoint.class));
+    }
+
+    @Test
+    void exposesStatisticsAndControlsCache() {
+        this.contextRunner.withUserConfiguration(EncryptorConfiguration.class)
+                .withPropertyValues("management.endpoints.web.exposure.include:kmsencryptor").run(context -> {
+                    KmsEncryptorEndpoint endpoint = context.getBean(KmsEncryptorEndpoint.class);
+
+                    CacheOperationDescriptor prewarm = endpoint.cache(CacheAction.PREWARM, List.of(TOKEN));
+                    assertThat(prewarm.affected()).isEqualTo(1);
+                    assertThat(context.getBean(KmsTextEncryptor.class).decrypt(TOKEN)).isEqualTo("secret");
+
+                    EncryptorDescriptor descriptor = endpoint.encryptor();
+                    assertThat(descriptor.keys()).containsOnlyKeys(KmsTextEncryptorStatistics.DEFAULT_KEY);
+                    assertThat(descriptor.keys().get(KmsTextEncryptorStatistics.DEFAULT_KEY).calls()).isEqualTo(1);
+                    CacheDescriptor cache = descriptor.cache();
+                    assertThat(cache.size()).isEqualTo(1);
+                    assertThat(cache.hits()).isEqualTo(1);
+                    assertThat(cache.hitRatio()).isEqualTo(0.5);
+
+                    CacheOperationDescriptor evict = endpoint.cache(CacheAction.EVICT, List.of(TOKEN));
+                    assertThat(evict.affected()).isEqualTo(1);
+                    assertThat(endpoint.encryptor().cache().size()).isZero();
+                });
+    }
+
+    @TestConfiguration
+    static class EncryptorConfiguration {
+        @Bean
+        KmsTextEncryptor kmsTextEncryptor() {
+            KmsClient kmsClient = mock(KmsClient.class);
+            when(kmsClient.decrypt(any(DecryptRequest.class)))
+                    .thenReturn(DecryptResponse.builder().plaintext(SdkBytes.fromUtf8String("secret")).build());
+
+            KmsTextEncryptor encryptor = new KmsTextEncryptor(kmsClient, null, null);
+            encryptor.setCache(new KmsDecryptionCache(10, Duration.ofMinutes(1)));
+            return encryptor;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsEncryptConfiguration;
+
+/**
+ * Tests for {@link KmsRuntimeHints}.
+ */
+class KmsRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registersHints() {
+        new KmsRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(KmsAutoConfiguration.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(KmsEncryptConfiguration.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("software/amazon/awssdk/global/handlers/execution.interceptors")).accepts(hints);
+    }
+}
@@ -0,0 +1,64 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+
+/**
+ * Tests for {@link KmsApplicationStartupInitializer}.
+ */
+class KmsApplicationStartupInitializerTest {
+
+    private static final String TOKEN = Base64.getEncoder().encodeToString("cipher".getBytes());
+
+    @Test
+    void recordsDecryptStepsOnApplicationTimelineUntilRefreshed() {
+        KmsClient kmsClient = mock(KmsClient.class);
+        when(kmsClient.decrypt(any(DecryptRequest.class)))
+                .thenReturn(DecryptResponse.builder().plaintext(SdkBytes.fromUtf8String("secret")).build());
+        KmsTextEncryptor encryptor = new KmsTextEncryptor(kmsClient, "key", null);
+
+        GenericApplicationContext bootstrapContext = new GenericApplicationContext();
+        bootstrapContext.registerBean(KmsTextEncryptor.class, () -> encryptor);
+        bootstrapContext.refresh();
+
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+        try (GenericApplicationContext applicationContext = new GenericApplicationContext()) {
+            applicationContext.setApplicationStartup(applicationStartup);
+            applicationContext.setParent(bootstrapContext);
+            new KmsApplicationStartupInitializer(bootstrapContext.getBeanProvider(KmsTextEncryptor.class))
+                    .initialize(applicationContext);
+
+            assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+            applicationContext.refresh();
+            assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+        } finally {
+            bootstrapContext.close();
+        }
+
+        List<StartupStep> decryptSteps = applicationStartup.getBufferedTimeline().getEvents().stream()
+                .map(TimelineEvent::getStartupStep)
+                .filter(step -> step.getName().equals("zalando.aws.kms.decrypt"))
+                .toList();
+        assertThat(decryptSteps).hasSize(1);
+        assertThat(decryptSteps.get(0).getTags()).anySatisfy(tag -> {
+            assertThat(tag.getKey()).isEqualTo("keyId");
+            assertThat(tag.getValue()).isEqualTo("key");
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+import software.amazon.awssdk.services.kms.KmsClient;
+
+/**
+ * Tests for {@link KmsEncryptConfiguration}.
+ */
+class KmsEncryptConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withPropertyValues("encrypt.kms.key-id:key")
+            .withUserConfiguration(KmsClientConfiguration.class, KmsEncryptConfiguration.class);
+
+    @Test
+    void createsKmsTextEncryptorOnly() {
+        this.contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(KmsTextEncryptor.class);
+            assertThat(context).doesNotHaveBean(KmsDataKeyEncryptor.class);
+            assertThat(context).doesNotHaveBean(KmsDataKeyTextEncryptor.class);
+            assertThat(context).doesNotHaveBean(KmsCircuitBreaker.class);
+            assertThat(context.getBean(KmsTextEncryptor.class).getCache()).isNull();
+        });
+    }
+
+    @Test
+    void createsDataKeyBeansWithoutReplacingCipherTextEncryptor() {
+        this.contextRunner
+                .withPropertyValues("encrypt.kms.data-key.enabled:true",
+                        "encrypt.kms.data-key.encryption-context.Code:351",
+                        "encrypt.kms.data-key.encryption-context.Stage:test")
+                .withUserConfiguration(TextEncryptorConsumers.class)
+                .run(context -> {
+                    assertThat(context).hasSingleBean(KmsTextEncryptor.class);
+                    assertThat(context).hasSingleBean(KmsDataKeyEncryptor.class);
+                    assertThat(context).hasBean("kmsDataKeyTextEncryptor");
+                    assertThat(context.getBean(KmsDataKeyEncryptor.class).getEncryptionContext())
+                            .isEqualTo(Map.of("Code", "351", "Stage", "test"));
+
+                    TextEncryptorConsumers consumers = context.getBean(TextEncryptorConsumers.class);
+                    assertThat(consumers.cipherEncryptor).isInstanceOf(KmsTextEncryptor.class);
+                    assertThat(consumers.dataKeyEncryptor).isInstanceOf(KmsDataKeyTextEncryptor.class);
+                });
+    }
+
+    @Test
+    void cachesWithoutCircuitBreaker() {
+        this.contextRunner.withPropertyValues("encrypt.kms.cache.enabled:true",
+                "encrypt.kms.cache.time-to-live:1m", "encrypt.kms.circuit-breaker.fallback-to-last-decrypted:true")
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(KmsCircuitBreaker.class);
+                    KmsDecryptionCache cache = context.getBean(KmsTextEncryptor.class).getCache();
+                    assertThat(cache).isNotNull();
+                    assertThat(cache.getTimeToLive()).isEqualTo(Duration.ofMinutes(1));
+                });
+    }
+
+    @Test
+    void ignoresFallbackWithoutCircuitBreaker() {
+        this.contextRunner.withPropertyValues("encrypt.kms.circuit-breaker.fallback-to-last-decrypted:true")
+                .run(context -> assertThat(context.getBean(KmsTextEncryptor.class).getCache()).isNull());
+    }
+
+    @Test
+    void createsFallbackOnlyCacheWithCircuitBreaker() {
+        this.contextRunner.withPropertyValues("encrypt.kms.circuit-breaker.enabled:true",
+                "encrypt.kms.circuit-breaker.fallback-to-last-decrypted:true",
+                "encrypt.kms.cache.maximum-size:10")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(KmsCircuitBreaker.class);
+                    KmsDecryptionCache cache = context.getBean(KmsTextEncryptor.class).getCache();
+                    assertThat(cache).isNotNull();
+                    assertThat(cache.getMaximumSize()).isEqualTo(10);
+                    assertThat(cache.getTimeToLive()).isZero();
+                });
+    }
+
+    @Test
+    void createsCircuitBreakerWithoutFallbackCache() {
+        this.contextRunner.withPropertyValues("encrypt.kms.circuit-breaker.enabled:true").run(context -> {
+            assertThat(context).hasSingleBean(KmsCircuitBreaker.class);
+            assertThat(context.getBean(KmsTextEncryptor.class).getCache()).isNull();
+        });
+    }
+
+    @TestConfiguration
+    static class KmsClientConfiguration {
+
+        @Bean
+        KmsClient kmsClient() {
+            return mock(KmsClient.class);
+        }
+    }
+
+    static class TextEncryptorConsumers {
+
+        final TextEncryptor cipherEncryptor;
+
+        final TextEncryptor dataKeyEncryptor;
+
+        TextEncryptorConsumers(TextEncryptor cipherEncryptor,
+                @Qualifier("kmsDataKeyTextEncryptor") TextEncryptor dataKeyEncryptor) {
+            this.cipherEncryptor = cipherEncryptor;
+            this.dataKeyEncryptor = dataKeyEncryptor;
+        }
+    }
+}
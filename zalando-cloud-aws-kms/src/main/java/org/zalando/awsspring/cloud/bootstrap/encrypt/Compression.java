@@ -0,0 +1,80 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied to the plaintext before it is encrypted. Compressing large values, e.g. JSON documents, keeps
+ * them below the 4 KB plaintext limit of AWS KMS and shrinks the resulting cipher text.
+ * <p>
+ * Decompressed values are limited to {@value #MAX_DECOMPRESSED_SIZE} bytes, so that a crafted token cannot exhaust the
+ * heap.
+ */
+public enum Compression {
+
+	NONE {
+
+		@Override
+		OutputStream compressing(OutputStream out) {
+			return out;
+		}
+
+		@Override
+		InputStream decompressing(InputStream in) {
+			return in;
+		}
+	},
+
+	GZIP {
+
+		@Override
+		OutputStream compressing(OutputStream out) throws IOException {
+			return new GZIPOutputStream(out);
+		}
+
+		@Override
+		InputStream decompressing(InputStream in) throws IOException {
+			return new GZIPInputStream(in);
+		}
+	};
+
+	public static final int MAX_DECOMPRESSED_SIZE = 1024 * 1024;
+
+	abstract OutputStream compressing(OutputStream out) throws IOException;
+
+	abstract InputStream decompressing(InputStream in) throws IOException;
+
+	public byte[] compress(byte[] plaintext) {
+		if (this == NONE) {
+			return plaintext;
+		}
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(plaintext.length / 2 + 32);
+		try (OutputStream out = compressing(buffer)) {
+			out.write(plaintext);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to compress plaintext with " + this, e);
+		}
+		return buffer.toByteArray();
+	}
+
+	public byte[] decompress(InputStream compressed) {
+		try (InputStream in = decompressing(compressed)) {
+			byte[] plaintext = in.readNBytes(MAX_DECOMPRESSED_SIZE + 1);
+			if (plaintext.length > MAX_DECOMPRESSED_SIZE) {
+				Arrays.fill(plaintext, (byte) 0);
+				throw new IllegalArgumentException(
+						"Decompressed plaintext exceeds " + MAX_DECOMPRESSED_SIZE + " bytes");
+			}
+			return plaintext;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to decompress plaintext with " + this, e);
+		}
+	}
+}
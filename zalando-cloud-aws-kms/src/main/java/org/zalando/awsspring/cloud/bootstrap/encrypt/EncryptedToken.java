@@ -4,14 +4,17 @@ import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.springframework.util.Assert;
 
+/**
+ * Encrypted value of the form {@code (context)[options]cipher}, where context and options are optional and may appear
+ * in any order.
+ * <p>
+ * The token is parsed with a single scan instead of a regular expression, so that no pattern has to be compiled on
+ * startup (or in a native image).
+ */
 public class EncryptedToken {
 	
-	private static final Pattern ENCRYPTED_TOKEN_PATTERN = Pattern.compile("^(?>\\((?<context>.*)\\)|\\[(?<options>.*)]){0,2}(?<cipher>.*)$");
+	private static final int MAX_PREFIXES = 2;
 
 	private byte[] cipher;
 	
@@ -38,13 +41,25 @@ public class EncryptedToken {
 	}
 	
 	public static EncryptedToken parse(String text) {
-		Matcher matcher = ENCRYPTED_TOKEN_PATTERN.matcher(text);
-		boolean matches = matcher.matches();
-		Assert.isTrue(matches, "Malformed encrypted string '" + text + "'");
+		String contextString = null;
+		String optionsString = null;
+		int pos = 0;
+		for (int i = 0; i < MAX_PREFIXES && pos < text.length(); i++) {
+			char open = text.charAt(pos);
+			char close = open == '(' ? ')' : open == '[' ? ']' : 0;
+			int end = close == 0 ? -1 : text.lastIndexOf(close);
+			if (end <= pos) {
+				break;
+			}
 
-		String contextString = matcher.group("context");
-        String optionsString = matcher.group("options");
-        String cipherString = matcher.group("cipher");
+			if (open == '(') {
+				contextString = text.substring(pos + 1, end);
+			} else {
+				optionsString = text.substring(pos + 1, end);
+			}
+			pos = end + 1;
+		}
+        String cipherString = text.substring(pos);
         
         byte[] cipher = parseCipher(cipherString);
         Map<String, String> context = parseContext(contextString);
@@ -70,12 +85,12 @@ public class EncryptedToken {
 		String keyId = options.get("keyId");
 		String encryptionAlgorithm = options.get("encryptionAlgorithm");
 		String modeText = options.get("output");
+		String compressionText = options.get("compression");
 		
-		if (modeText != null) {
-			return new EncryptedTokenOptions(keyId, encryptionAlgorithm, OutputMode.valueOf(modeText.toUpperCase()));
-		} else {
-			return new EncryptedTokenOptions(keyId, encryptionAlgorithm);
-		}
+		OutputMode output = modeText != null ? OutputMode.valueOf(modeText.toUpperCase()) : OutputMode.PLAIN;
+		Compression compression = compressionText != null ? Compression.valueOf(compressionText.toUpperCase())
+				: Compression.NONE;
+		return new EncryptedTokenOptions(keyId, encryptionAlgorithm, output, compression);
 	}
 	
 	private static Map<String, String> parseMap(String text, Function<String, String> transformer) {
@@ -10,14 +10,22 @@ public class EncryptedTokenOptions {
 
 	private OutputMode output;
 
+	private Compression compression;
+
 	public EncryptedTokenOptions(String keyId, String encryptionAlgorithm) {
 		this(keyId, encryptionAlgorithm, OutputMode.PLAIN);
 	}
 
 	public EncryptedTokenOptions(String keyId, String encryptionAlgorithm, OutputMode output) {
+		this(keyId, encryptionAlgorithm, output, Compression.NONE);
+	}
+
+	public EncryptedTokenOptions(String keyId, String encryptionAlgorithm, OutputMode output,
+			Compression compression) {
 		this.keyId = keyId;
 		this.encryptionAlgorithm = encryptionAlgorithm;
 		this.output = output == null ? OutputMode.PLAIN : output;
+		this.compression = compression == null ? Compression.NONE : compression;
 	}
 
 	public String getKeyId() {
@@ -32,6 +40,10 @@ public class EncryptedTokenOptions {
 		return output;
 	}
 
+	public Compression getCompression() {
+		return compression;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(keyId);
@@ -49,7 +61,7 @@ public class EncryptedTokenOptions {
 
 		EncryptedTokenOptions other = (EncryptedTokenOptions) obj;
 		return Objects.equals(keyId, other.keyId) && Objects.equals(encryptionAlgorithm, other.encryptionAlgorithm)
-				&& Objects.equals(output, other.output);
+				&& Objects.equals(output, other.output) && Objects.equals(compression, other.compression);
 	}
 
 }
@@ -0,0 +1,34 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded for every call of a {@link KmsTextEncryptor} against AWS KMS.
+ */
+@Name("org.zalando.awsspring.cloud.kms.Call")
+@Label("KMS Call")
+@Category({ "Zalando Cloud AWS", "KMS" })
+@Description("Call of a KmsTextEncryptor against AWS KMS")
+class KmsCallEvent extends Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Key Id")
+	String keyId;
+
+	@Label("Success")
+	boolean success;
+
+	@Label("Concurrency Acquire Duration")
+	@Description("Time spent waiting for an HTTP connection from the pool, excluding establishing it, as reported "
+			+ "by the AWS SDK, -1 if not reported")
+	@Timespan
+	long concurrencyAcquireDuration;
+
+}
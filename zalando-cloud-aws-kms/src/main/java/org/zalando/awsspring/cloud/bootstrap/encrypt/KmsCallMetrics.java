@@ -0,0 +1,57 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.time.Duration;
+
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.services.kms.model.KmsRequest;
+
+/**
+ * {@link MetricPublisher} attached to a single KMS request that captures the time the AWS SDK waited for an HTTP
+ * connection from the pool of the HTTP client, {@link HttpMetric#CONCURRENCY_ACQUIRE_DURATION}. It does not include
+ * establishing a new connection, and the {@code UrlConnectionHttpClient} does not report it at all.
+ */
+class KmsCallMetrics implements MetricPublisher {
+
+	private volatile long concurrencyAcquireNanos = -1;
+
+	@SuppressWarnings("unchecked")
+	<Q extends KmsRequest> Q attachTo(Q request) {
+		return (Q) request.toBuilder().overrideConfiguration(c -> c.addMetricPublisher(this)).build();
+	}
+
+	/**
+	 * Returns the concurrency acquire time summed over all attempts, or -1 if the HTTP client did not report it.
+	 */
+	long getConcurrencyAcquireNanos() {
+		return concurrencyAcquireNanos;
+	}
+
+	@Override
+	public void publish(MetricCollection metrics) {
+		long nanos = concurrencyAcquireNanos(metrics);
+		if (nanos >= 0) {
+			concurrencyAcquireNanos = nanos;
+		}
+	}
+
+	private static long concurrencyAcquireNanos(MetricCollection metrics) {
+		long nanos = -1;
+		for (Duration duration : metrics.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION)) {
+			nanos = Math.max(nanos, 0) + duration.toNanos();
+		}
+		for (MetricCollection child : metrics.children()) {
+			long childNanos = concurrencyAcquireNanos(child);
+			if (childNanos >= 0) {
+				nanos = Math.max(nanos, 0) + childNanos;
+			}
+		}
+		return nanos;
+	}
+
+	@Override
+	public void close() {
+	}
+
+}
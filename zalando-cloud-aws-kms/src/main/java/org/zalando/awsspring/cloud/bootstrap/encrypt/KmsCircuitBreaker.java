@@ -0,0 +1,157 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.ListKeysRequest;
+
+/**
+ * Circuit breaker around the calls a {@link KmsTextEncryptor} issues against AWS KMS.
+ * <p>
+ * After {@code failureThreshold} consecutive failures that indicate KMS is unavailable (client side timeouts and
+ * I/O errors, throttling or server errors) the circuit opens and further calls fail fast with a
+ * {@link KmsUnavailableException} instead of blocking on the SDK timeouts. While the circuit is open, KMS is probed
+ * in the background every {@code waitDuration} with a {@code ListKeys} call that does not depend on any user request,
+ * until KMS answers again and the circuit closes. Any answer of KMS closes the circuit, including an access denied
+ * error, so the probe does not require additional permissions.
+ */
+public class KmsCircuitBreaker implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(KmsCircuitBreaker.class);
+
+	private static final ListKeysRequest PROBE_REQUEST = ListKeysRequest.builder().limit(1).build();
+
+	private final KmsClient kmsClient;
+
+	private final int failureThreshold;
+
+	private final Duration waitDuration;
+
+	private final AtomicInteger failures = new AtomicInteger();
+
+	private final AtomicBoolean open = new AtomicBoolean();
+
+	private final ScheduledExecutorService scheduler;
+
+	public KmsCircuitBreaker(KmsClient kmsClient, int failureThreshold, Duration waitDuration) {
+		Assert.notNull(kmsClient, "kmsClient must not be null");
+		Assert.isTrue(failureThreshold > 0, "failureThreshold must be greater than 0");
+		Assert.isTrue(waitDuration != null && !waitDuration.isNegative() && !waitDuration.isZero(),
+				"waitDuration must be positive");
+		this.kmsClient = kmsClient;
+		this.failureThreshold = failureThreshold;
+		this.waitDuration = waitDuration;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "kms-circuit-breaker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public boolean isOpen() {
+		return open.get();
+	}
+
+	/**
+	 * Issues the given KMS call unless the circuit is open.
+	 *
+	 * @throws KmsUnavailableException if the circuit is open
+	 */
+	public <T> T execute(Supplier<T> call) {
+		if (open.get()) {
+			throw new KmsUnavailableException("AWS KMS circuit breaker is open, failing fast");
+		}
+
+		try {
+			T result = call.get();
+			failures.set(0);
+			return result;
+		} catch (RuntimeException e) {
+			if (isUnavailable(e)) {
+				onFailure();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns whether the given exception indicates that AWS KMS is unavailable, i.e. a timeout, an I/O error, throttling
+	 * or a server error, as opposed to a failure caused by the request itself (e.g. a malformed cipher text or a missing
+	 * permission) or by a misconfigured client (e.g. missing credentials).
+	 */
+	public static boolean isUnavailable(Throwable e) {
+		if (e instanceof KmsUnavailableException || e instanceof ApiCallTimeoutException
+				|| e instanceof ApiCallAttemptTimeoutException) {
+			return true;
+		}
+		if (e instanceof SdkClientException) {
+			return hasIoCause(e);
+		}
+		if (e instanceof SdkServiceException serviceException) {
+			return serviceException.isThrottlingException() || serviceException.statusCode() >= 500;
+		}
+		return false;
+	}
+
+	private static boolean hasIoCause(Throwable e) {
+		for (Throwable cause = e.getCause(); cause != null && cause != e; e = cause, cause = cause.getCause()) {
+			if (cause instanceof IOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void onFailure() {
+		if (failures.incrementAndGet() >= failureThreshold && open.compareAndSet(false, true)) {
+			LOG.warn("AWS KMS failed {} times in a row, opening circuit breaker for {}", failureThreshold,
+					waitDuration);
+			scheduleProbe();
+		}
+	}
+
+	private void scheduleProbe() {
+		try {
+			scheduler.schedule(this::probe, waitDuration.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			LOG.debug("Circuit breaker has been closed, not probing AWS KMS anymore");
+		}
+	}
+
+	private void probe() {
+		try {
+			kmsClient.listKeys(PROBE_REQUEST);
+		} catch (RuntimeException e) {
+			if (isUnavailable(e)) {
+				LOG.debug("AWS KMS is still unavailable, keeping circuit breaker open", e);
+				scheduleProbe();
+				return;
+			}
+		}
+		failures.set(0);
+		open.set(false);
+		LOG.info("AWS KMS is available again, closing circuit breaker");
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+
+}
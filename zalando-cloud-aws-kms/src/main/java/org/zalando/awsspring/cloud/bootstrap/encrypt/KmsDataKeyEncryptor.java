@@ -0,0 +1,289 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.util.Assert;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DataKeySpec;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyResponse;
+
+/**
+ * Implementation of BytesEncryptor that encrypts locally with AES-GCM under data keys generated by AWS KMS.
+ * <p>
+ * A data key is reused for encryption until it has encrypted {@code maxMessages} messages or {@code maxBytes} bytes,
+ * or is older than {@code maxAge}, so that KMS is called once per data key instead of once per message. Decrypted data
+ * keys are cached for {@code maxAge} as well, up to 1000 keys, evicting the least recently used one. Decrypt requests
+ * do not pin the KMS key id, the cipher text of a symmetric data key identifies its KMS key.
+ * <p>
+ * Messages consist of a version byte, the length and the KMS cipher text of the data key, a 12 byte IV and the AES-GCM
+ * cipher text. The header is authenticated as additional data. The encryption context is bound to the data key by
+ * KMS, it is not part of the message.
+ */
+public class KmsDataKeyEncryptor implements BytesEncryptor {
+
+	/**
+	 * AES-GCM with random 96 bit IVs must stay well below 2^32 messages per key to keep the probability of an IV
+	 * collision negligible.
+	 */
+	public static final long MAX_MESSAGES_PER_KEY = 1L << 30;
+
+	private static final byte VERSION = 1;
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	private static final int IV_LENGTH = 12;
+
+	private static final int TAG_LENGTH_BITS = 128;
+
+	private static final int MAX_CACHED_DECRYPTION_KEYS = 1000;
+
+	private final KmsClient kmsClient;
+
+	private final String kmsKeyId;
+
+	private final Map<String, String> encryptionContext;
+
+	private final long maxMessages;
+
+	private final long maxBytes;
+
+	private final long maxAgeNanos;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private final Object encryptionKeyLock = new Object();
+
+	private volatile DataKey encryptionKey;
+
+	private final LruMap<CachedKeyId, CompletableFuture<DataKey>> decryptionKeys = new LruMap<>(
+			MAX_CACHED_DECRYPTION_KEYS);
+
+	public KmsDataKeyEncryptor(KmsClient kmsClient, String kmsKeyId, Map<String, String> encryptionContext,
+			long maxMessages, long maxBytes, Duration maxAge) {
+		Assert.hasText(kmsKeyId, "kmsKeyId must not be empty");
+		Assert.isTrue(maxMessages > 0 && maxMessages <= MAX_MESSAGES_PER_KEY,
+				"maxMessages must be between 1 and " + MAX_MESSAGES_PER_KEY);
+		Assert.isTrue(maxBytes > 0, "maxBytes must be greater than 0");
+		Assert.isTrue(maxAge != null && !maxAge.isNegative() && !maxAge.isZero(), "maxAge must be positive");
+		this.kmsClient = kmsClient;
+		this.kmsKeyId = kmsKeyId;
+		this.encryptionContext = encryptionContext == null ? Map.of() : Map.copyOf(encryptionContext);
+		this.maxMessages = maxMessages;
+		this.maxBytes = maxBytes;
+		this.maxAgeNanos = maxAge.toNanos();
+	}
+
+	public Map<String, String> getEncryptionContext() {
+		return encryptionContext;
+	}
+
+	@Override
+	public byte[] encrypt(byte[] plaintext) {
+		DataKey dataKey = acquireEncryptionKey(plaintext.length);
+		byte[] iv = new byte[IV_LENGTH];
+		random.nextBytes(iv);
+
+		byte[] cipherText = doFinal(Cipher.ENCRYPT_MODE, dataKey.key, iv, dataKey.header, plaintext, 0,
+				plaintext.length);
+
+		return ByteBuffer.allocate(dataKey.header.length + IV_LENGTH + cipherText.length)
+			.put(dataKey.header)
+			.put(iv)
+			.put(cipherText)
+			.array();
+	}
+
+	@Override
+	public byte[] decrypt(byte[] encryptedBytes) {
+		return decrypt(encryptedBytes, encryptionContext);
+	}
+
+	/**
+	 * Decrypts a message whose data key has been generated with the given encryption context.
+	 */
+	public byte[] decrypt(byte[] encryptedBytes, Map<String, String> context) {
+		Assert.isTrue(encryptedBytes.length > 3 && encryptedBytes[0] == VERSION, "Malformed data key message");
+		int encryptedKeyLength = ((encryptedBytes[1] & 0xff) << 8) | (encryptedBytes[2] & 0xff);
+		int headerLength = 3 + encryptedKeyLength;
+		Assert.isTrue(encryptedBytes.length >= headerLength + IV_LENGTH + TAG_LENGTH_BITS / 8,
+				"Malformed data key message");
+
+		byte[] encryptedKey = Arrays.copyOfRange(encryptedBytes, 3, headerLength);
+		byte[] header = Arrays.copyOf(encryptedBytes, headerLength);
+		byte[] iv = Arrays.copyOfRange(encryptedBytes, headerLength, headerLength + IV_LENGTH);
+		int offset = headerLength + IV_LENGTH;
+
+		SecretKey key = decryptionKey(encryptedKey, context == null ? Map.of() : context);
+		return doFinal(Cipher.DECRYPT_MODE, key, iv, header, encryptedBytes, offset, encryptedBytes.length - offset);
+	}
+
+	private DataKey acquireEncryptionKey(int length) {
+		Assert.isTrue(length <= maxBytes, "Message exceeds maximum number of bytes per data key");
+		DataKey dataKey = encryptionKey;
+		if (dataKey != null && dataKey.tryUse(length)) {
+			return dataKey;
+		}
+
+		synchronized (encryptionKeyLock) {
+			dataKey = encryptionKey;
+			if (dataKey != null && dataKey.tryUse(length)) {
+				return dataKey;
+			}
+
+			dataKey = generateDataKey();
+			Assert.isTrue(dataKey.tryUse(length), "Message exceeds maximum number of bytes per data key");
+			encryptionKey = dataKey;
+			return dataKey;
+		}
+	}
+
+	private DataKey generateDataKey() {
+		GenerateDataKeyResponse response = kmsClient.generateDataKey(GenerateDataKeyRequest.builder()
+			.keyId(kmsKeyId)
+			.keySpec(DataKeySpec.AES_256)
+			.encryptionContext(encryptionContext)
+			.build());
+
+		byte[] encryptedKey = response.ciphertextBlob().asByteArray();
+		Assert.isTrue(encryptedKey.length <= 0xffff, "Encrypted data key too long");
+		SecretKey key = toSecretKey(response.plaintext());
+		DataKey dataKey = new DataKey(key, encryptedKey);
+		cacheDecryptionKey(encryptionContext, dataKey);
+		return dataKey;
+	}
+
+	/**
+	 * Loads every data key once: concurrent decrypts of messages under the same uncached data key wait for the first
+	 * one to call KMS.
+	 */
+	private SecretKey decryptionKey(byte[] encryptedKey, Map<String, String> context) {
+		CachedKeyId id = new CachedKeyId(ByteBuffer.wrap(encryptedKey), Map.copyOf(context));
+		while (true) {
+			CompletableFuture<DataKey> cached = decryptionKeys.get(id);
+			if (cached == null) {
+				CompletableFuture<DataKey> loading = new CompletableFuture<>();
+				cached = decryptionKeys.putIfAbsent(id, loading);
+				if (cached == null) {
+					return load(id, loading).key;
+				}
+			}
+
+			DataKey dataKey = await(cached);
+			if (!dataKey.isExpired()) {
+				return dataKey.key;
+			}
+			decryptionKeys.remove(id, cached);
+		}
+	}
+
+	private DataKey load(CachedKeyId id, CompletableFuture<DataKey> loading) {
+		try {
+			SecretKey key = toSecretKey(kmsClient.decrypt(DecryptRequest.builder()
+				.ciphertextBlob(SdkBytes.fromByteArray(id.encryptedKey.array()))
+				.encryptionContext(id.context)
+				.build()).plaintext());
+			DataKey dataKey = new DataKey(key, id.encryptedKey.array());
+			loading.complete(dataKey);
+			return dataKey;
+		} catch (RuntimeException e) {
+			decryptionKeys.remove(id, loading);
+			loading.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	private static DataKey await(CompletableFuture<DataKey> dataKey) {
+		try {
+			return dataKey.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+	}
+
+	private void cacheDecryptionKey(Map<String, String> context, DataKey dataKey) {
+		CachedKeyId id = new CachedKeyId(ByteBuffer.wrap(dataKey.encryptedKey), Map.copyOf(context));
+		decryptionKeys.put(id, CompletableFuture.completedFuture(dataKey));
+	}
+
+	private static SecretKey toSecretKey(SdkBytes plaintextKey) {
+		byte[] keyBytes = PlaintextBytes.copyOf(plaintextKey);
+		try {
+			return new SecretKeySpec(keyBytes, "AES");
+		} finally {
+			Arrays.fill(keyBytes, (byte) 0);
+		}
+	}
+
+	private static byte[] header(byte[] encryptedKey) {
+		return ByteBuffer.allocate(3 + encryptedKey.length)
+			.put(VERSION)
+			.putShort((short) encryptedKey.length)
+			.put(encryptedKey)
+			.array();
+	}
+
+	private static byte[] doFinal(int mode, SecretKey key, byte[] iv, byte[] aad, byte[] input, int offset,
+			int length) {
+		try {
+			Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+			cipher.init(mode, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+			cipher.updateAAD(aad);
+			return cipher.doFinal(input, offset, length);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Unable to invoke Cipher due to " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * KMS binds a data key to its encryption context, so a cached key is only served for the very same context.
+	 */
+	private record CachedKeyId(ByteBuffer encryptedKey, Map<String, String> context) {
+	}
+
+	private final class DataKey {
+
+		private final SecretKey key;
+
+		private final byte[] encryptedKey;
+
+		private final byte[] header;
+
+		private final long created = System.nanoTime();
+
+		private final AtomicLong messages = new AtomicLong();
+
+		private final AtomicLong bytes = new AtomicLong();
+
+		private DataKey(SecretKey key, byte[] encryptedKey) {
+			this.key = key;
+			this.encryptedKey = encryptedKey;
+			this.header = header(encryptedKey);
+		}
+
+		private boolean isExpired() {
+			return System.nanoTime() - created > maxAgeNanos;
+		}
+
+		private boolean tryUse(int length) {
+			return !isExpired() && messages.incrementAndGet() <= maxMessages && bytes.addAndGet(length) <= maxBytes;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+/**
+ * Implementation of TextEncryptor on top of a {@link KmsDataKeyEncryptor}.
+ * <p>
+ * Encrypted values are Base64 encoded and, if the data key encryptor uses an encryption context, prefixed with that
+ * context in the syntax of {@link EncryptedToken}, e.g. {@code (Code=MzUx)...}. Decrypting uses the context of the
+ * token, so values encrypted with different contexts can be decrypted by the same encryptor.
+ */
+public class KmsDataKeyTextEncryptor implements TextEncryptor {
+
+	private static final Base64.Encoder BASE64_ENCODER = Base64.getEncoder();
+
+	private final KmsDataKeyEncryptor encryptor;
+
+	private final String contextPrefix;
+
+	public KmsDataKeyTextEncryptor(KmsDataKeyEncryptor encryptor) {
+		this.encryptor = encryptor;
+		this.contextPrefix = formatContext(encryptor.getEncryptionContext());
+	}
+
+	private static String formatContext(Map<String, String> context) {
+		if (context.isEmpty()) {
+			return "";
+		}
+		return context.entrySet().stream()
+			.map(e -> e.getKey() + "=" + BASE64_ENCODER.encodeToString(e.getValue().getBytes(StandardCharsets.UTF_8)))
+			.collect(Collectors.joining(",", "(", ")"));
+	}
+
+	@Override
+	public String encrypt(String text) {
+		byte[] encrypted = encryptor.encrypt(text.getBytes(StandardCharsets.UTF_8));
+		return contextPrefix + BASE64_ENCODER.encodeToString(encrypted);
+	}
+
+	@Override
+	public String decrypt(String encryptedText) {
+		EncryptedToken token = EncryptedToken.parse(encryptedText);
+		Map<String, String> context = token.getContext() == null ? Map.of() : token.getContext();
+		return new String(encryptor.decrypt(token.getCipher(), context), StandardCharsets.UTF_8);
+	}
+}
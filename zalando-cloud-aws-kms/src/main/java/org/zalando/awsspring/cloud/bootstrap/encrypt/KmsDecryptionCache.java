@@ -0,0 +1,100 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory cache of decrypted values of a {@link KmsTextEncryptor}, keyed by the encrypted token.
+ * <p>
+ * Entries younger than {@code timeToLive} are returned instead of calling AWS KMS. Older entries are only used as
+ * fallback while KMS is unavailable, see {@link KmsTextEncryptor#setFallbackToLastDecrypted(boolean)}. With a
+ * {@code timeToLive} of zero, the cache serves as such a fallback only. The cache holds at most {@code maximumSize}
+ * entries. When full, every insert evicts the least recently used entry; lookups take no lock, so the eviction order
+ * is approximate under concurrent access.
+ */
+public class KmsDecryptionCache {
+
+	private final long timeToLiveNanos;
+
+	private final LruMap<String, Entry> entries;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	public KmsDecryptionCache(int maximumSize, Duration timeToLive) {
+		Assert.isTrue(timeToLive != null && !timeToLive.isNegative(), "timeToLive must not be negative");
+		this.entries = new LruMap<>(maximumSize);
+		this.timeToLiveNanos = timeToLive.toNanos();
+	}
+
+	/**
+	 * Returns the cached value of the given token if it is younger than the time to live.
+	 */
+	public String get(String token) {
+		if (timeToLiveNanos == 0) {
+			return null;
+		}
+
+		Entry entry = entries.get(token);
+		if (entry != null && System.nanoTime() - entry.created <= timeToLiveNanos) {
+			hits.increment();
+			return entry.plaintext;
+		}
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Returns the cached value of the given token regardless of its age.
+	 */
+	public String getStale(String token) {
+		Entry entry = entries.get(token);
+		return entry == null ? null : entry.plaintext;
+	}
+
+	public void put(String token, String plaintext) {
+		if (entries.put(token, new Entry(plaintext, System.nanoTime()))) {
+			evictions.increment();
+		}
+	}
+
+	public boolean evict(String token) {
+		return entries.remove(token);
+	}
+
+	public int clear() {
+		return entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaximumSize() {
+		return entries.getMaximumSize();
+	}
+
+	public Duration getTimeToLive() {
+		return Duration.ofNanos(timeToLiveNanos);
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	private record Entry(String plaintext, long created) {
+	}
+}
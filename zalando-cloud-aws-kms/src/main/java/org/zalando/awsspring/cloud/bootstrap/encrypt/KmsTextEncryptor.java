@@ -1,10 +1,17 @@
 package org.zalando.awsspring.cloud.bootstrap.encrypt;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.security.crypto.encrypt.TextEncryptor;
 
 import software.amazon.awssdk.core.SdkBytes;
@@ -13,13 +20,24 @@ import software.amazon.awssdk.services.kms.model.DecryptRequest;
 import software.amazon.awssdk.services.kms.model.DecryptResponse;
 import software.amazon.awssdk.services.kms.model.EncryptRequest;
 import software.amazon.awssdk.services.kms.model.EncryptResponse;
+import software.amazon.awssdk.services.kms.model.KmsRequest;
 
 /**
  * Implementation of TextEncryptor that uses AWS KMS.
+ * <p>
+ * A single instance is shared by all bootstrap and refresh threads. Besides its collaborators, which are set up once
+ * before use, it holds no mutable state: requests are derived from immutable prototypes, and plaintext buffers owned
+ * by the encryptor are confined to the calling thread and zeroed as soon as they have been converted.
  */
 public class KmsTextEncryptor implements TextEncryptor {
 
-	private static Logger LOG = LoggerFactory.getLogger(KmsTextEncryptor.class);
+	private static final Logger LOG = LoggerFactory.getLogger(KmsTextEncryptor.class);
+
+	private static final Base64.Encoder BASE64_ENCODER = Base64.getEncoder();
+
+	private static final String ENCRYPT_STEP = "zalando.aws.kms.encrypt";
+
+	private static final String DECRYPT_STEP = "zalando.aws.kms.decrypt";
 
 	private final KmsClient kmsClient;
 
@@ -27,15 +45,89 @@ public class KmsTextEncryptor implements TextEncryptor {
 
 	private final String kmsEncryptionAlgorithm;
 
+	private final EncryptRequest encryptPrototype;
+
+	private final DecryptRequest decryptPrototype;
+
+	private final KmsTextEncryptorStatistics statistics = new KmsTextEncryptorStatistics();
+
+	private volatile ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	private KmsCircuitBreaker circuitBreaker;
+
+	private KmsDecryptionCache cache;
+
+	private boolean fallbackToLastDecrypted;
+
+	private Compression compression = Compression.NONE;
+
 	public KmsTextEncryptor(KmsClient kmsClient, String kmsKeyId, String kmsEncryptionAlgorithm) {
 		this.kmsClient = kmsClient;
 		this.kmsKeyId = kmsKeyId;
 		this.kmsEncryptionAlgorithm = kmsEncryptionAlgorithm;
+		this.encryptPrototype = EncryptRequest.builder()
+			.keyId(kmsKeyId)
+			.encryptionAlgorithm(kmsEncryptionAlgorithm)
+			.build();
+		this.decryptPrototype = DecryptRequest.builder()
+			.keyId(kmsKeyId)
+			.encryptionAlgorithm(kmsEncryptionAlgorithm)
+			.build();
+	}
+
+	/**
+	 * Guards all calls to AWS KMS with the given circuit breaker. Without a circuit breaker, every call is issued
+	 * against KMS.
+	 */
+	public void setCircuitBreaker(KmsCircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	/**
+	 * Caches decrypted values in the given cache. Without a cache, every decrypt is issued against KMS.
+	 */
+	public void setCache(KmsDecryptionCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Whether to return the last successfully decrypted plaintext of a token from the cache while AWS KMS is
+	 * unavailable. Requires a {@link #setCache(KmsDecryptionCache) cache}. Defaults to {@code false}.
+	 */
+	public void setFallbackToLastDecrypted(boolean fallbackToLastDecrypted) {
+		this.fallbackToLastDecrypted = fallbackToLastDecrypted;
+	}
+
+	/**
+	 * Compression applied to values before they are encrypted. Values are only compressed if that makes them smaller,
+	 * which is recorded in the options of the resulting token, e.g. {@code [compression=gzip]}, and reverted on
+	 * decrypt. Defaults to {@link Compression#NONE}.
+	 */
+	public void setCompression(Compression compression) {
+		this.compression = compression == null ? Compression.NONE : compression;
+	}
+
+	/**
+	 * Records calls against AWS KMS as {@link StartupStep} named {@code zalando.aws.kms.encrypt} or
+	 * {@code zalando.aws.kms.decrypt}, tagged with the key id and the time spent waiting for a pooled HTTP connection.
+	 * Set to {@code null} or {@link ApplicationStartup#DEFAULT} once the application is ready to stop recording steps.
+	 * Calls are recorded as JFR events regardless.
+	 */
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		this.applicationStartup = applicationStartup == null ? ApplicationStartup.DEFAULT : applicationStartup;
+	}
+
+	public KmsTextEncryptorStatistics getStatistics() {
+		return statistics;
+	}
+
+	public KmsDecryptionCache getCache() {
+		return cache;
 	}
 
 	private String convertToString(byte[] cipherBytes, OutputMode output) {
 		if (OutputMode.BASE64 == output) {
-			return Base64.getEncoder().encodeToString(cipherBytes);
+			return BASE64_ENCODER.encodeToString(cipherBytes);
 		} else {
 			return new String(cipherBytes);
 		}
@@ -44,54 +136,133 @@ public class KmsTextEncryptor implements TextEncryptor {
 
 	@Override
 	public String encrypt(String text) {
-		EncryptRequest request = buildEncryptRequest(text);
-		EncryptResponse response = kmsClient.encrypt(request);
-
-		byte[] cipherBytes = response.ciphertextBlob().asByteArray();
-
-		return convertToString(cipherBytes, OutputMode.BASE64);
-	}
+		byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+		byte[] compressed = compression.compress(textBytes);
+		boolean isCompressed = compressed.length < textBytes.length;
+		byte[] plaintext = isCompressed ? compressed : textBytes;
+		try {
+			EncryptRequest request = buildEncryptRequest(plaintext);
+			EncryptResponse response = call("encrypt", ENCRYPT_STEP, request.keyId(), request,
+					(EncryptRequest r) -> kmsClient.encrypt(r));
 
-	private EncryptRequest buildEncryptRequest(String text) {
-		EncryptRequest.Builder requestBuilder = EncryptRequest.builder().keyId(kmsKeyId)
-			.plaintext(SdkBytes.fromUtf8String(text));
-
-		if (kmsEncryptionAlgorithm != null) {
-			requestBuilder = requestBuilder.encryptionAlgorithm(kmsEncryptionAlgorithm);
+			String cipher = convertToString(response.ciphertextBlob().asByteArrayUnsafe(), OutputMode.BASE64);
+			if (isCompressed) {
+				return "[compression=" + compression.name().toLowerCase() + "]" + cipher;
+			}
+			return cipher;
+		} finally {
+			Arrays.fill(textBytes, (byte) 0);
+			Arrays.fill(compressed, (byte) 0);
 		}
+	}
 
-		return requestBuilder.build();
+	private EncryptRequest buildEncryptRequest(byte[] plaintext) {
+		return encryptPrototype.toBuilder()
+			.plaintext(SdkBytes.fromByteArrayUnsafe(plaintext))
+			.build();
 	}
 
 
 	@Override
 	public String decrypt(String encryptedText) {
+		if (cache != null) {
+			String cached = cache.get(encryptedText);
+			if (cached != null) {
+				return cached;
+			}
+		}
 
 		EncryptedToken encryptedToken = EncryptedToken.parse(encryptedText);
-		LOG.info("decrypting {} as part of stack.\n{}", encryptedText, Thread.currentThread().getStackTrace());
+		LOG.debug("decrypting {}", encryptedText);
 
 		DecryptRequest request = buildDecryptRequest(encryptedToken);
 
-		DecryptResponse response = kmsClient.decrypt(request);
-		byte[] textBytes = response.plaintext().asByteArray();
+		DecryptResponse response;
+		try {
+			response = call("decrypt", DECRYPT_STEP, request.keyId(), request,
+					(DecryptRequest r) -> kmsClient.decrypt(r));
+		} catch (RuntimeException e) {
+			String plaintext = fallbackToLastDecrypted && cache != null && KmsCircuitBreaker.isUnavailable(e)
+					? cache.getStale(encryptedText)
+					: null;
+			if (plaintext == null) {
+				throw e;
+			}
+			LOG.warn("AWS KMS is unavailable, using last decrypted value of {}", encryptedText);
+			return plaintext;
+		}
+
+		EncryptedTokenOptions options = encryptedToken.getOptions();
+		Compression tokenCompression = options == null ? Compression.NONE : options.getCompression();
+		byte[] responseBytes = PlaintextBytes.copyOf(response.plaintext());
+		byte[] textBytes = tokenCompression == Compression.NONE
+				? responseBytes
+				: tokenCompression.decompress(new ByteArrayInputStream(responseBytes));
 
-		return convertToString(textBytes, OutputMode.PLAIN);
+		String plaintext;
+		try {
+			plaintext = convertToString(textBytes, OutputMode.PLAIN);
+		} finally {
+			Arrays.fill(responseBytes, (byte) 0);
+			Arrays.fill(textBytes, (byte) 0);
+		}
+
+		if (cache != null) {
+			cache.put(encryptedText, plaintext);
+		}
+		return plaintext;
+	}
+
+	private <Q extends KmsRequest, R> R call(String operation, String stepName, String keyId, Q request,
+			Function<Q, R> kmsCall) {
+		ApplicationStartup startup = applicationStartup;
+		boolean recordStep = startup != ApplicationStartup.DEFAULT;
+		KmsCallEvent event = new KmsCallEvent();
+		KmsCallMetrics metrics = recordStep || event.isEnabled() ? new KmsCallMetrics() : null;
+		Q trackedRequest = metrics == null ? request : metrics.attachTo(request);
+		StartupStep step = recordStep ? startup.start(stepName).tag("keyId", String.valueOf(keyId)) : null;
+		event.begin();
+
+		boolean success = false;
+		try {
+			Supplier<R> supplier = () -> kmsCall.apply(trackedRequest);
+			R result = statistics.record(keyId,
+					() -> circuitBreaker == null ? supplier.get() : circuitBreaker.execute(supplier));
+			success = true;
+			return result;
+		} finally {
+			event.end();
+			long concurrencyAcquireNanos = metrics == null ? -1 : metrics.getConcurrencyAcquireNanos();
+			if (event.shouldCommit()) {
+				event.operation = operation;
+				event.keyId = keyId;
+				event.success = success;
+				event.concurrencyAcquireDuration = concurrencyAcquireNanos;
+				event.commit();
+			}
+			if (step != null) {
+				step.tag("success", String.valueOf(success));
+				if (concurrencyAcquireNanos >= 0) {
+					step.tag("concurrencyAcquireDuration", Duration.ofNanos(concurrencyAcquireNanos).toString());
+				}
+				step.end();
+			}
+		}
 	}
 
 	private DecryptRequest buildDecryptRequest(EncryptedToken encryptedToken) {
+		DecryptRequest.Builder requestBuilder = decryptPrototype.toBuilder()
+			.ciphertextBlob(SdkBytes.fromByteArrayUnsafe(encryptedToken.getCipher()))
+			.encryptionContext(encryptedToken.getContext());
+
 		EncryptedTokenOptions options = encryptedToken.getOptions();
-		final String keyId = Optional.ofNullable(options)
-			.map(EncryptedTokenOptions::getKeyId)
-			.orElse(kmsKeyId);
-		final String algorithm = Optional.ofNullable(options)
-			.map(EncryptedTokenOptions::getEncryptionAlgorithm)
-			.orElse(kmsEncryptionAlgorithm);
-
-		return DecryptRequest.builder()
-			.ciphertextBlob(SdkBytes.fromByteArray(encryptedToken.getCipher()))
-			.keyId(keyId)
-			.encryptionAlgorithm(algorithm)
-			.encryptionContext(encryptedToken.getContext())
-			.build();
+		if (options != null && options.getKeyId() != null) {
+			requestBuilder.keyId(options.getKeyId());
+		}
+		if (options != null && options.getEncryptionAlgorithm() != null) {
+			requestBuilder.encryptionAlgorithm(options.getEncryptionAlgorithm());
+		}
+
+		return requestBuilder.build();
 	}
-}
\ No newline at end of file
+}
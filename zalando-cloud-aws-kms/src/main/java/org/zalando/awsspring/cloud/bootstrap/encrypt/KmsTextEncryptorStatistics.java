@@ -0,0 +1,120 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Call statistics of a {@link KmsTextEncryptor}, collected per KMS key.
+ */
+public class KmsTextEncryptorStatistics {
+
+	/**
+	 * Upper bounds (inclusive, in milliseconds) of the latency histogram buckets. Calls slower than the last bound are
+	 * counted in an additional overflow bucket.
+	 */
+	public static final long[] LATENCY_BUCKET_BOUNDS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000 };
+
+	/**
+	 * Key used for calls without an explicit key id, e.g. decrypting with the key referenced by the cipher text.
+	 */
+	public static final String DEFAULT_KEY = "default";
+
+	private final Map<String, KeyStatistics> keys = new ConcurrentHashMap<>();
+
+	/**
+	 * Issues the given KMS call and records it for the given key.
+	 */
+	public <T> T record(String keyId, Supplier<T> call) {
+		KeyStatistics key = keys.computeIfAbsent(keyId == null ? DEFAULT_KEY : keyId, k -> new KeyStatistics());
+		key.inFlight.incrementAndGet();
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			T result = call.get();
+			success = true;
+			return result;
+		} finally {
+			key.inFlight.decrementAndGet();
+			key.record(System.nanoTime() - start, success);
+		}
+	}
+
+	public Map<String, KeyStatistics> getKeys() {
+		return Collections.unmodifiableMap(keys);
+	}
+
+	public static class KeyStatistics {
+
+		private final LongAdder calls = new LongAdder();
+
+		private final LongAdder failures = new LongAdder();
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		private final LongAdder[] latencyBuckets = new LongAdder[LATENCY_BUCKET_BOUNDS.length + 1];
+
+		KeyStatistics() {
+			for (int i = 0; i < latencyBuckets.length; i++) {
+				latencyBuckets[i] = new LongAdder();
+			}
+		}
+
+		private void record(long nanos, boolean success) {
+			calls.increment();
+			if (!success) {
+				failures.increment();
+			}
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+
+			long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+			int bucket = 0;
+			while (bucket < LATENCY_BUCKET_BOUNDS.length && millis > LATENCY_BUCKET_BOUNDS[bucket]) {
+				bucket++;
+			}
+			latencyBuckets[bucket].increment();
+		}
+
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		public long getFailures() {
+			return failures.sum();
+		}
+
+		public int getInFlight() {
+			return inFlight.get();
+		}
+
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		public long getMaxNanos() {
+			return maxNanos.get();
+		}
+
+		/**
+		 * Returns the number of calls per latency bucket, in the order of {@link #LATENCY_BUCKET_BOUNDS} followed by
+		 * the overflow bucket.
+		 */
+		public long[] getLatencyBuckets() {
+			long[] result = new long[latencyBuckets.length];
+			for (int i = 0; i < latencyBuckets.length; i++) {
+				result[i] = latencyBuckets[i].sum();
+			}
+			return result;
+		}
+	}
+}
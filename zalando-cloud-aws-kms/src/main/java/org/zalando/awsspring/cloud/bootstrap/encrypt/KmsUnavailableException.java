@@ -0,0 +1,14 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+/**
+ * Thrown when a call to AWS KMS is rejected without being issued because the {@link KmsCircuitBreaker} is open.
+ */
+public class KmsUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public KmsUnavailableException(String message) {
+		super(message);
+	}
+
+}
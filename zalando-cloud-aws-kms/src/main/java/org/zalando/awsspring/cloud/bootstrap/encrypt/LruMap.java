@@ -0,0 +1,127 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * Map of at most {@code maximumSize} entries that evicts the least recently used entry when an insert exceeds it.
+ * <p>
+ * Writes update an access-ordered {@link LinkedHashMap} under a lock, so every insert evicts at most one entry in
+ * constant time. Lookups read a {@link ConcurrentHashMap} without blocking and only refresh the recency of an entry if
+ * the lock is free, so the eviction order is approximate under contention.
+ */
+final class LruMap<K, V> {
+
+	private final int maximumSize;
+
+	private final Map<K, V> values = new ConcurrentHashMap<>();
+
+	private final LinkedHashMap<K, V> order = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	LruMap(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.maximumSize = maximumSize;
+	}
+
+	V get(K key) {
+		V value = values.get(key);
+		if (value != null && lock.tryLock()) {
+			try {
+				order.get(key);
+			} finally {
+				lock.unlock();
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Returns {@code true} if the least recently used entry has been evicted to make room.
+	 */
+	boolean put(K key, V value) {
+		lock.lock();
+		try {
+			order.put(key, value);
+			values.put(key, value);
+			return evictEldest();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	V putIfAbsent(K key, V value) {
+		lock.lock();
+		try {
+			V existing = order.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			order.put(key, value);
+			values.put(key, value);
+			evictEldest();
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean evictEldest() {
+		if (order.size() <= maximumSize) {
+			return false;
+		}
+		Iterator<Map.Entry<K, V>> eldest = order.entrySet().iterator();
+		values.remove(eldest.next().getKey());
+		eldest.remove();
+		return true;
+	}
+
+	boolean remove(K key) {
+		lock.lock();
+		try {
+			values.remove(key);
+			return order.remove(key) != null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	boolean remove(K key, V value) {
+		lock.lock();
+		try {
+			if (!order.remove(key, value)) {
+				return false;
+			}
+			values.remove(key);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int clear() {
+		lock.lock();
+		try {
+			int size = order.size();
+			order.clear();
+			values.clear();
+			return size;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int size() {
+		return values.size();
+	}
+
+	int getMaximumSize() {
+		return maximumSize;
+	}
+}
@@ -0,0 +1,21 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import software.amazon.awssdk.core.SdkBytes;
+
+/**
+ * Access to the plaintext of KMS responses.
+ */
+final class PlaintextBytes {
+
+	private PlaintextBytes() {
+	}
+
+	/**
+	 * Returns a copy of the given plaintext that may be modified and cleared, as the response may be shared, e.g. by
+	 * interceptors or a caching client.
+	 */
+	static byte[] copyOf(SdkBytes plaintext) {
+		return plaintext.asByteArray();
+	}
+
+}
@@ -0,0 +1,144 @@
+package org.zalando.awsspring.cloud.config.server.encrypt;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
+import org.springframework.core.Ordered;
+import org.springframework.util.Assert;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptor;
+
+/**
+ * {@link EnvironmentEncryptor} for a Spring Cloud Config Server that decrypts every distinct {@code {cipher}} value
+ * only once per config version.
+ * <p>
+ * Decrypted values are kept in memory, grouped by the version of the {@link Environment} they were served with, so
+ * that further fetches of the same version by any number of clients are answered without calling AWS KMS. Only the
+ * {@code maxVersions} most recently requested versions are retained, regardless of their age. Environments without a
+ * version are decrypted on every fetch. The retained values are independent of the cache of the
+ * {@link KmsTextEncryptor}, use {@link #evict(String)} or {@link #clear()} to drop them, e.g. after a secret has been
+ * revoked.
+ * <p>
+ * The encryptor has the highest precedence, so that {@code {cipher}} values are already decrypted when other
+ * encryptors of the server see the environment. Values with {@code {key:...}} or {@code {name:...}} prefixes select a
+ * key of the server's own encryptor and are left in place for it.
+ */
+public class KmsEnvironmentEncryptor implements EnvironmentEncryptor, Ordered {
+
+	private static final Logger LOG = LoggerFactory.getLogger(KmsEnvironmentEncryptor.class);
+
+	private static final String CIPHER_PREFIX = "{cipher}";
+
+	private final KmsTextEncryptor encryptor;
+
+	private final int maxVersions;
+
+	private final Map<String, Map<String, String>> versions;
+
+	public KmsEnvironmentEncryptor(KmsTextEncryptor encryptor, int maxVersions) {
+		Assert.notNull(encryptor, "encryptor must not be null");
+		Assert.isTrue(maxVersions > 0, "maxVersions must be greater than 0");
+		this.encryptor = encryptor;
+		this.maxVersions = maxVersions;
+		this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+				return size() > KmsEnvironmentEncryptor.this.maxVersions;
+			}
+		};
+	}
+
+	@Override
+	public Environment decrypt(Environment environment) {
+		Map<String, String> decrypted = environment.getVersion() == null
+				? new HashMap<>()
+				: decryptedValues(environment.getVersion());
+
+		Environment result = new Environment(environment.getName(), environment.getProfiles(),
+				environment.getLabel(), environment.getVersion(), environment.getState());
+		for (PropertySource source : environment.getPropertySources()) {
+			Map<Object, Object> map = new LinkedHashMap<>(source.getSource());
+			for (Map.Entry<?, ?> entry : source.getSource().entrySet()) {
+				if (entry.getValue() instanceof String value && value.startsWith(CIPHER_PREFIX)
+						&& !value.startsWith("{", CIPHER_PREFIX.length())) {
+					String key = entry.getKey().toString();
+					try {
+						map.put(key, decrypt(decrypted, value));
+					} catch (RuntimeException e) {
+						map.remove(key);
+						map.put("invalid." + key, "<n/a>");
+						LOG.warn("Cannot decrypt key: {} ({}: {})", key, e.getClass(), e.getMessage());
+					}
+				}
+			}
+			result.add(new PropertySource(source.getName(), map));
+		}
+		return result;
+	}
+
+	/**
+	 * Decrypts outside of the map, so that concurrent fetches of other values are not blocked by the call against AWS
+	 * KMS. Concurrent fetches of the same value may decrypt it more than once.
+	 */
+	private String decrypt(Map<String, String> decrypted, String value) {
+		String plaintext = decrypted.get(value);
+		if (plaintext == null) {
+			plaintext = encryptor.decrypt(value.substring(CIPHER_PREFIX.length()));
+			String previous = decrypted.putIfAbsent(value, plaintext);
+			if (previous != null) {
+				plaintext = previous;
+			}
+		}
+		return plaintext;
+	}
+
+	private Map<String, String> decryptedValues(String version) {
+		synchronized (versions) {
+			return versions.computeIfAbsent(version, v -> new ConcurrentHashMap<>());
+		}
+	}
+
+	/**
+	 * Drops the decrypted values of the given config version, returns {@code false} if none were kept.
+	 */
+	public boolean evict(String version) {
+		synchronized (versions) {
+			return versions.remove(version) != null;
+		}
+	}
+
+	/**
+	 * Drops the decrypted values of all config versions, returns the number of versions dropped.
+	 */
+	public int clear() {
+		synchronized (versions) {
+			int size = versions.size();
+			versions.clear();
+			return size;
+		}
+	}
+
+	/**
+	 * Returns the number of config versions decrypted values are currently kept for.
+	 */
+	public int getCachedVersions() {
+		synchronized (versions) {
+			return versions.size();
+		}
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+}
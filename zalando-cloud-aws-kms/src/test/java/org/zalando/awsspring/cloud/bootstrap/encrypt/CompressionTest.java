@@ -0,0 +1,28 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CompressionTest {
+
+    @Test
+    public void roundTrips() {
+        byte[] plaintext = "secret".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = Compression.GZIP.compress(plaintext);
+
+        Assertions.assertThat(compressed.length).isLessThan(plaintext.length);
+        Assertions.assertThat(Compression.GZIP.decompress(new ByteArrayInputStream(compressed))).isEqualTo(plaintext);
+    }
+
+    @Test
+    public void rejectsOversizedPlaintext() {
+        byte[] compressed = Compression.GZIP.compress(new byte[Compression.MAX_DECOMPRESSED_SIZE + 1]);
+
+        Assertions.assertThatThrownBy(() -> Compression.GZIP.decompress(new ByteArrayInputStream(compressed)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
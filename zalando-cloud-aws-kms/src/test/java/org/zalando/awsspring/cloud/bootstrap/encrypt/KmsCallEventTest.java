@@ -0,0 +1,52 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+
+public class KmsCallEventTest {
+
+    private static final String TOKEN = Base64.getEncoder().encodeToString("cipher".getBytes());
+
+    @Test
+    public void recordsDecryptCalls() throws Exception {
+        KmsClient kmsClient = mock(KmsClient.class);
+        when(kmsClient.decrypt(any(DecryptRequest.class)))
+            .thenReturn(DecryptResponse.builder().plaintext(SdkBytes.fromUtf8String("secret")).build());
+        KmsTextEncryptor encryptor = new KmsTextEncryptor(kmsClient, "key", null);
+
+        Path file = Files.createTempFile("kms-call", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.zalando.awsspring.cloud.kms.Call");
+            recording.start();
+            Assertions.assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Assertions.assertThat(events).hasSize(1);
+            Assertions.assertThat(events.get(0).getString("operation")).isEqualTo("decrypt");
+            Assertions.assertThat(events.get(0).getString("keyId")).isEqualTo("key");
+            Assertions.assertThat(events.get(0).getBoolean("success")).isTrue();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
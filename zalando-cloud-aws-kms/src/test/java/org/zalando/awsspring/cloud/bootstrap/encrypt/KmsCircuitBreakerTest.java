@@ -0,0 +1,143 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.InvalidCiphertextException;
+import software.amazon.awssdk.services.kms.model.ListKeysRequest;
+import software.amazon.awssdk.services.kms.model.ListKeysResponse;
+
+public class KmsCircuitBreakerTest {
+
+    private static final String TOKEN = Base64.getEncoder().encodeToString("cipher".getBytes());
+
+    private KmsClient kmsClient;
+
+    private KmsCircuitBreaker circuitBreaker;
+
+    private KmsTextEncryptor encryptor;
+
+    @BeforeEach
+    public void setUp() {
+        kmsClient = mock(KmsClient.class);
+        circuitBreaker = new KmsCircuitBreaker(kmsClient, 2, Duration.ofMillis(100));
+        encryptor = new KmsTextEncryptor(kmsClient, null, null);
+        encryptor.setCircuitBreaker(circuitBreaker);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        circuitBreaker.close();
+    }
+
+    @Test
+    public void opensAfterRepeatedTimeouts() {
+        when(kmsClient.decrypt(any(DecryptRequest.class))).thenThrow(timeout());
+
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(ApiCallTimeoutException.class);
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(ApiCallTimeoutException.class);
+        Assertions.assertThat(circuitBreaker.isOpen()).isTrue();
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(KmsUnavailableException.class);
+
+        verify(kmsClient, times(2)).decrypt(any(DecryptRequest.class));
+    }
+
+    @Test
+    public void staysClosedOnRequestErrors() {
+        when(kmsClient.decrypt(any(DecryptRequest.class))).thenThrow(InvalidCiphertextException.builder().statusCode(400).build());
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(InvalidCiphertextException.class);
+        }
+        Assertions.assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    public void staysClosedOnCredentialsErrors() {
+        when(kmsClient.decrypt(any(DecryptRequest.class)))
+            .thenThrow(SdkClientException.create("Unable to load credentials from any of the providers in the chain"));
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(SdkClientException.class);
+        }
+        Assertions.assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    public void opensAfterRepeatedIoErrors() {
+        when(kmsClient.decrypt(any(DecryptRequest.class)))
+            .thenThrow(SdkClientException.create("Unable to execute HTTP request", new ConnectException("refused")));
+
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(SdkClientException.class);
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(SdkClientException.class);
+        Assertions.assertThat(circuitBreaker.isOpen()).isTrue();
+    }
+
+    @Test
+    public void closesWhenBackgroundProbeSucceeds() throws Exception {
+        when(kmsClient.decrypt(any(DecryptRequest.class)))
+            .thenThrow(timeout(), timeout())
+            .thenReturn(response("secret"));
+        when(kmsClient.listKeys(any(ListKeysRequest.class)))
+            .thenThrow(timeout())
+            .thenReturn(ListKeysResponse.builder().build());
+
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(ApiCallTimeoutException.class);
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(TOKEN)).isInstanceOf(ApiCallTimeoutException.class);
+        Assertions.assertThat(circuitBreaker.isOpen()).isTrue();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (circuitBreaker.isOpen() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        Assertions.assertThat(circuitBreaker.isOpen()).isFalse();
+        Assertions.assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+        verify(kmsClient, times(2)).listKeys(any(ListKeysRequest.class));
+        verify(kmsClient, times(3)).decrypt(any(DecryptRequest.class));
+    }
+
+    @Test
+    public void fallsBackToLastDecryptedValue() {
+        encryptor.setCache(new KmsDecryptionCache(10, Duration.ZERO));
+        encryptor.setFallbackToLastDecrypted(true);
+        when(kmsClient.decrypt(any(DecryptRequest.class)))
+            .thenReturn(response("secret"))
+            .thenThrow(timeout());
+
+        Assertions.assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+        Assertions.assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+        Assertions.assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+        Assertions.assertThat(circuitBreaker.isOpen()).isTrue();
+        Assertions.assertThat(encryptor.decrypt(TOKEN)).isEqualTo("secret");
+
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt("[output=base64]" + TOKEN))
+            .isInstanceOf(KmsUnavailableException.class);
+    }
+
+    private static ApiCallTimeoutException timeout() {
+        return ApiCallTimeoutException.create(100);
+    }
+
+    private static DecryptResponse response(String plaintext) {
+        return DecryptResponse.builder().plaintext(SdkBytes.fromUtf8String(plaintext)).build();
+    }
+}
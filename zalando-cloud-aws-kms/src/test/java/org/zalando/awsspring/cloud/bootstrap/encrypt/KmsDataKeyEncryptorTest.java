@@ -0,0 +1,190 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyResponse;
+
+public class KmsDataKeyEncryptorTest {
+
+    private static final int THREADS = 8;
+
+    private static final byte[] SECRET = "secret".getBytes(StandardCharsets.UTF_8);
+
+    private KmsClient kmsClient;
+
+    @BeforeEach
+    public void setUp() {
+        kmsClient = mock(KmsClient.class);
+        // the "encrypted" data key is the random plaintext key itself, so that KMS decrypt can echo it
+        when(kmsClient.generateDataKey(any(GenerateDataKeyRequest.class))).thenAnswer(invocation -> {
+            byte[] key = UUID.randomUUID().toString().substring(0, 32).getBytes(StandardCharsets.US_ASCII);
+            return GenerateDataKeyResponse.builder()
+                .plaintext(SdkBytes.fromByteArray(key))
+                .ciphertextBlob(SdkBytes.fromByteArray(key))
+                .build();
+        });
+        when(kmsClient.decrypt(any(DecryptRequest.class))).thenAnswer(invocation -> DecryptResponse.builder()
+            .plaintext(invocation.getArgument(0, DecryptRequest.class).ciphertextBlob())
+            .build());
+    }
+
+    @Test
+    public void encryptsWithoutKmsWithinLimits() {
+        KmsDataKeyEncryptor encryptor = encryptor(Map.of(), 100, 1000, Duration.ofMinutes(5));
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertThat(encryptor.decrypt(encryptor.encrypt(SECRET))).isEqualTo(SECRET);
+        }
+
+        verify(kmsClient, times(1)).generateDataKey(any(GenerateDataKeyRequest.class));
+        verify(kmsClient, never()).decrypt(any(DecryptRequest.class));
+    }
+
+    @Test
+    public void rotatesDataKeyAfterMaxMessages() {
+        KmsDataKeyEncryptor encryptor = encryptor(Map.of(), 2, 1000, Duration.ofMinutes(5));
+
+        byte[] first = encryptor.encrypt(SECRET);
+        encryptor.encrypt(SECRET);
+        byte[] third = encryptor.encrypt(SECRET);
+
+        verify(kmsClient, times(2)).generateDataKey(any(GenerateDataKeyRequest.class));
+        Assertions.assertThat(encryptor.decrypt(first)).isEqualTo(SECRET);
+        Assertions.assertThat(encryptor.decrypt(third)).isEqualTo(SECRET);
+    }
+
+    @Test
+    public void rotatesDataKeyAfterMaxBytes() {
+        KmsDataKeyEncryptor encryptor = encryptor(Map.of(), 100, SECRET.length * 2, Duration.ofMinutes(5));
+
+        encryptor.encrypt(SECRET);
+        encryptor.encrypt(SECRET);
+        encryptor.encrypt(SECRET);
+
+        verify(kmsClient, times(2)).generateDataKey(any(GenerateDataKeyRequest.class));
+    }
+
+    @Test
+    public void rejectsMessageLargerThanMaxBytesWithoutCallingKms() {
+        KmsDataKeyEncryptor encryptor = encryptor(Map.of(), 100, SECRET.length - 1, Duration.ofMinutes(5));
+
+        Assertions.assertThatThrownBy(() -> encryptor.encrypt(SECRET)).isInstanceOf(IllegalArgumentException.class);
+
+        verify(kmsClient, never()).generateDataKey(any(GenerateDataKeyRequest.class));
+    }
+
+    @Test
+    public void decryptsDataKeyOnceWithKms() {
+        byte[] encrypted = encryptor(Map.of(), 100, 1000, Duration.ofMinutes(5)).encrypt(SECRET);
+        KmsDataKeyEncryptor other = encryptor(Map.of(), 100, 1000, Duration.ofMinutes(5));
+
+        Assertions.assertThat(other.decrypt(encrypted)).isEqualTo(SECRET);
+        Assertions.assertThat(other.decrypt(encrypted)).isEqualTo(SECRET);
+
+        verify(kmsClient, times(1)).decrypt(any(DecryptRequest.class));
+    }
+
+    @Test
+    public void decryptsUncachedDataKeyOnceForConcurrentCalls() throws Exception {
+        byte[] encrypted = encryptor(Map.of(), 100, 1000, Duration.ofMinutes(5)).encrypt(SECRET);
+        KmsDataKeyEncryptor other = encryptor(Map.of(), 100, 1000, Duration.ofMinutes(5));
+        CountDownLatch kmsCalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(kmsClient.decrypt(any(DecryptRequest.class))).thenAnswer(invocation -> {
+            kmsCalled.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return DecryptResponse.builder()
+                .plaintext(invocation.getArgument(0, DecryptRequest.class).ciphertextBlob())
+                .build();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> other.decrypt(encrypted)));
+            }
+            Assertions.assertThat(kmsCalled.await(10, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+            for (Future<byte[]> result : results) {
+                Assertions.assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(SECRET);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(kmsClient, times(1)).decrypt(any(DecryptRequest.class));
+    }
+
+    @Test
+    public void doesNotPinKeyIdOnDecrypt() {
+        byte[] encrypted = encryptor(Map.of(), 100, 1000, Duration.ofMinutes(5)).encrypt(SECRET);
+        ArgumentCaptor<DecryptRequest> request = ArgumentCaptor.forClass(DecryptRequest.class);
+
+        new KmsDataKeyEncryptor(kmsClient, "rotated-key", Map.of(), 100, 1000, Duration.ofMinutes(5))
+            .decrypt(encrypted);
+
+        verify(kmsClient).decrypt(request.capture());
+        Assertions.assertThat(request.getValue().keyId()).isNull();
+    }
+
+    @Test
+    public void rejectsUnsafeMaxMessages() {
+        Assertions.assertThatThrownBy(
+                () -> encryptor(Map.of(), KmsDataKeyEncryptor.MAX_MESSAGES_PER_KEY + 1, 1000, Duration.ofMinutes(5)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void rejectsTamperedMessage() {
+        KmsDataKeyEncryptor encryptor = encryptor(Map.of(), 100, 1000, Duration.ofMinutes(5));
+        byte[] encrypted = encryptor.encrypt(SECRET);
+        encrypted[encrypted.length - 1] ^= 1;
+
+        Assertions.assertThatThrownBy(() -> encryptor.decrypt(encrypted)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void textEncryptorAddsEncryptionContext() {
+        KmsDataKeyTextEncryptor encryptor = new KmsDataKeyTextEncryptor(
+                encryptor(Map.of("Code", "351"), 100, 1000, Duration.ofMinutes(5)));
+
+        String token = encryptor.encrypt("secret");
+
+        Assertions.assertThat(token).startsWith("(Code=MzUx)");
+        Assertions.assertThat(EncryptedToken.parse(token).getContext()).containsEntry("Code", "351");
+        Assertions.assertThat(encryptor.decrypt(token)).isEqualTo("secret");
+    }
+
+    private KmsDataKeyEncryptor encryptor(Map<String, String> context, long maxMessages, long maxBytes,
+            Duration maxAge) {
+        return new KmsDataKeyEncryptor(kmsClient, "key", context, maxMessages, maxBytes, maxAge);
+    }
+}
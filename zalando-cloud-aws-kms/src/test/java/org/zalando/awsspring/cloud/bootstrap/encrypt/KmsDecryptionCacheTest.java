@@ -0,0 +1,75 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class KmsDecryptionCacheTest {
+
+    private static final int THREADS = 8;
+
+    private static final int PUTS_PER_THREAD = 1000;
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        KmsDecryptionCache cache = new KmsDecryptionCache(2, Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        cache.put("c", "3");
+
+        Assertions.assertThat(cache.get("a")).isEqualTo("1");
+        Assertions.assertThat(cache.get("b")).isNull();
+        Assertions.assertThat(cache.get("c")).isEqualTo("3");
+        Assertions.assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void servesStaleEntriesOnlyAsFallback() {
+        KmsDecryptionCache cache = new KmsDecryptionCache(2, Duration.ZERO);
+        cache.put("a", "1");
+
+        Assertions.assertThat(cache.get("a")).isNull();
+        Assertions.assertThat(cache.getStale("a")).isEqualTo("1");
+    }
+
+    @Test
+    public void staysAtMaximumSizeAfterConcurrentInserts() throws Exception {
+        KmsDecryptionCache cache = new KmsDecryptionCache(100, Duration.ofMinutes(1));
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                tasks.add(() -> {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    for (int i = 0; i < PUTS_PER_THREAD; i++) {
+                        cache.put("token-" + thread + "-" + i, "secret");
+                        cache.get("token-" + thread + "-" + (i / 2));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        Assertions.assertThat(cache.size()).isEqualTo(cache.getMaximumSize());
+        Assertions.assertThat(cache.getEvictions()).isEqualTo((long) THREADS * PUTS_PER_THREAD - cache.getMaximumSize());
+    }
+}
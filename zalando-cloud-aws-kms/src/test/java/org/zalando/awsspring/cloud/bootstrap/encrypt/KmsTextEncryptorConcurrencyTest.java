@@ -0,0 +1,169 @@
+package org.zalando.awsspring.cloud.bootstrap.encrypt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.EncryptRequest;
+import software.amazon.awssdk.services.kms.model.EncryptResponse;
+
+/**
+ * Stress tests for a {@link KmsTextEncryptor} shared by many threads.
+ */
+public class KmsTextEncryptorConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private static final int CALLS_PER_THREAD = 500;
+
+    @Test
+    public void roundTripsFromManyThreads() throws Exception {
+        KmsTextEncryptor encryptor = new KmsTextEncryptor(new StubKmsClient(null), "key", null);
+
+        runConcurrently(THREADS, CALLS_PER_THREAD, (thread, call) -> {
+            String secret = "secret-" + thread + "-" + call;
+            Assertions.assertThat(encryptor.decrypt(encryptor.encrypt(secret))).isEqualTo(secret);
+        });
+
+        KmsTextEncryptorStatistics.KeyStatistics statistics = encryptor.getStatistics().getKeys().get("key");
+        Assertions.assertThat(statistics.getCalls()).isEqualTo(2L * THREADS * CALLS_PER_THREAD);
+        Assertions.assertThat(statistics.getFailures()).isZero();
+        Assertions.assertThat(statistics.getInFlight()).isZero();
+    }
+
+    @Test
+    public void roundTripsCompressedAndCachedFromManyThreads() throws Exception {
+        KmsTextEncryptor encryptor = new KmsTextEncryptor(new StubKmsClient(null), "key", null);
+        encryptor.setCompression(Compression.GZIP);
+        encryptor.setCache(new KmsDecryptionCache(100, Duration.ofMinutes(1)));
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tokens.add(encryptor.encrypt("{\"secret\":" + i + "}"));
+        }
+
+        runConcurrently(THREADS, CALLS_PER_THREAD, (thread, call) -> {
+            int i = (thread + call) % tokens.size();
+            Assertions.assertThat(encryptor.decrypt(tokens.get(i))).isEqualTo("{\"secret\":" + i + "}");
+        });
+
+        Assertions.assertThat(encryptor.getCache().size()).isEqualTo(tokens.size());
+    }
+
+    @Test
+    public void doesNotSerializeCalls() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        KmsTextEncryptor encryptor = new KmsTextEncryptor(new StubKmsClient(barrier), "key", null);
+        encryptor.setCompression(Compression.GZIP);
+        encryptor.setCache(new KmsDecryptionCache(1, Duration.ofMinutes(1)));
+        String token = new KmsTextEncryptor(new StubKmsClient(null), "key", null).encrypt("secret");
+
+        // every call waits in KMS until all threads have a call in flight, so any lock held across calls times out
+        runConcurrently(THREADS, 1, (thread, call) -> {
+            Assertions.assertThat(encryptor.decrypt(token)).isEqualTo("secret");
+            Assertions.assertThat(encryptor.encrypt("secret-" + thread)).isNotNull();
+        });
+
+        Assertions.assertThat(encryptor.getStatistics().getKeys().get("key").getCalls()).isEqualTo(2L * THREADS);
+    }
+
+    private static void runConcurrently(int threads, int callsPerThread, Call call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                tasks.add(() -> {
+                    for (int c = 0; c < callsPerThread; c++) {
+                        call.run(thread, c);
+                    }
+                    return null;
+                });
+            }
+
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+
+        void run(int thread, int call) throws Exception;
+    }
+
+    /**
+     * {@link KmsClient} that "encrypts" by reversing the plaintext, optionally once all parties of a barrier called.
+     */
+    private static class StubKmsClient implements KmsClient {
+
+        private final CyclicBarrier barrier;
+
+        StubKmsClient(CyclicBarrier barrier) {
+            this.barrier = barrier;
+        }
+
+        @Override
+        public EncryptResponse encrypt(EncryptRequest request) {
+            await();
+            return EncryptResponse.builder().keyId(request.keyId())
+                .ciphertextBlob(SdkBytes.fromByteArray(reverse(request.plaintext().asByteArray()))).build();
+        }
+
+        @Override
+        public DecryptResponse decrypt(DecryptRequest request) {
+            await();
+            return DecryptResponse.builder().keyId(request.keyId())
+                .plaintext(SdkBytes.fromByteArray(reverse(request.ciphertextBlob().asByteArray()))).build();
+        }
+
+        private void await() {
+            if (barrier != null) {
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (BrokenBarrierException | TimeoutException e) {
+                    throw new IllegalStateException("Calls against KMS have been serialized", e);
+                }
+            }
+        }
+
+        private static byte[] reverse(byte[] bytes) {
+            byte[] result = new byte[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                result[i] = bytes[bytes.length - 1 - i];
+            }
+            return result;
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -69,6 +69,30 @@ public class KmsTextEncryptorTest {
         Assertions.assertThat(encrypted).isNotBlank().isBase64();
     }
 
+    @Test
+    public void encryptAndDecryptCompressed() throws Exception {
+        String json = "{\"entries\":[" + "{\"name\":\"secret\",\"value\":\"s3cr3t\"},".repeat(300) + "{}]}";
+
+        KmsTextEncryptor encryptor = new KmsTextEncryptor(kmsClient, symmetricKeyId, null);
+        encryptor.setCompression(Compression.GZIP);
+        String encrypted = encryptor.encrypt(json);
+
+        Assertions.assertThat(json.length()).isGreaterThan(4096);
+        Assertions.assertThat(encrypted).startsWith("[compression=gzip]");
+        Assertions.assertThat(encryptor.decrypt(encrypted)).isEqualTo(json);
+        Assertions.assertThat(new KmsTextEncryptor(kmsClient, symmetricKeyId, null).decrypt(encrypted)).isEqualTo(json);
+    }
+
+    @Test
+    public void encryptShortValueUncompressed() throws Exception {
+        KmsTextEncryptor encryptor = new KmsTextEncryptor(kmsClient, symmetricKeyId, null);
+        encryptor.setCompression(Compression.GZIP);
+        String encrypted = encryptor.encrypt("secret");
+
+        Assertions.assertThat(encrypted).doesNotStartWith("[");
+        Assertions.assertThat(encryptor.decrypt(encrypted)).isEqualTo("secret");
+    }
+
     @Test
     public void decryptSymmetric() throws Exception {
         String password = "secret";
@@ -0,0 +1,113 @@
+package org.zalando.awsspring.cloud.config.server.encrypt;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.zalando.awsspring.cloud.bootstrap.encrypt.KmsTextEncryptor;
+
+public class KmsEnvironmentEncryptorTest {
+
+    private KmsTextEncryptor textEncryptor;
+
+    private KmsEnvironmentEncryptor encryptor;
+
+    @BeforeEach
+    public void setUp() {
+        textEncryptor = mock(KmsTextEncryptor.class);
+        when(textEncryptor.decrypt("c2VjcmV0")).thenReturn("secret");
+        when(textEncryptor.decrypt("YnJva2Vu")).thenThrow(new IllegalArgumentException("broken"));
+        encryptor = new KmsEnvironmentEncryptor(textEncryptor, 2);
+    }
+
+    @Test
+    public void decryptsEachTokenOncePerVersion() {
+        for (int i = 0; i < 5; i++) {
+            Environment decrypted = encryptor.decrypt(environment("v1"));
+
+            Map<?, ?> source = decrypted.getPropertySources().get(0).getSource();
+            Assertions.assertThat(source.get("password")).isEqualTo("secret");
+            Assertions.assertThat(source.get("other.password")).isEqualTo("secret");
+            Assertions.assertThat(source.get("plain")).isEqualTo("value");
+        }
+        verify(textEncryptor, times(1)).decrypt("c2VjcmV0");
+
+        encryptor.decrypt(environment("v2"));
+        verify(textEncryptor, times(2)).decrypt("c2VjcmV0");
+    }
+
+    @Test
+    public void retainsOnlyMostRecentVersions() {
+        encryptor.decrypt(environment("v1"));
+        encryptor.decrypt(environment("v2"));
+        encryptor.decrypt(environment("v3"));
+
+        Assertions.assertThat(encryptor.getCachedVersions()).isEqualTo(2);
+        encryptor.decrypt(environment("v1"));
+        verify(textEncryptor, times(4)).decrypt("c2VjcmV0");
+    }
+
+    @Test
+    public void decryptsAgainAfterEvictionAndClear() {
+        encryptor.decrypt(environment("v1"));
+        encryptor.decrypt(environment("v2"));
+
+        Assertions.assertThat(encryptor.evict("v1")).isTrue();
+        Assertions.assertThat(encryptor.evict("v1")).isFalse();
+        encryptor.decrypt(environment("v1"));
+        verify(textEncryptor, times(3)).decrypt("c2VjcmV0");
+
+        Assertions.assertThat(encryptor.clear()).isEqualTo(2);
+        Assertions.assertThat(encryptor.getCachedVersions()).isZero();
+        encryptor.decrypt(environment("v2"));
+        verify(textEncryptor, times(4)).decrypt("c2VjcmV0");
+    }
+
+    @Test
+    public void marksValuesThatCannotBeDecrypted() {
+        Environment environment = new Environment("app", new String[] { "default" }, "main", "v1", null);
+        environment.add(new PropertySource("source", Map.of("broken", "{cipher}YnJva2Vu")));
+
+        Map<?, ?> source = encryptor.decrypt(environment).getPropertySources().get(0).getSource();
+
+        Assertions.assertThat(source).doesNotContainKey("broken");
+        Assertions.assertThat(source.get("invalid.broken")).isEqualTo("<n/a>");
+    }
+
+    @Test
+    public void doesNotCacheEnvironmentsWithoutVersion() {
+        encryptor.decrypt(environment(null));
+        encryptor.decrypt(environment(null));
+
+        Assertions.assertThat(encryptor.getCachedVersions()).isZero();
+        verify(textEncryptor, times(2)).decrypt("c2VjcmV0");
+    }
+
+    @Test
+    public void leavesPrefixedValuesToServerEncryptor() {
+        Environment environment = new Environment("app", new String[] { "default" }, "main", "v1", null);
+        environment.add(new PropertySource("source", Map.of("password", "{cipher}{key:other}c2VjcmV0")));
+
+        Map<?, ?> source = encryptor.decrypt(environment).getPropertySources().get(0).getSource();
+
+        Assertions.assertThat(source.get("password")).isEqualTo("{cipher}{key:other}c2VjcmV0");
+        verify(textEncryptor, never()).decrypt(anyString());
+    }
+
+    private static Environment environment(String version) {
+        Environment environment = new Environment("app", new String[] { "default" }, "main", version, null);
+        environment.add(new PropertySource("source",
+                Map.of("password", "{cipher}c2VjcmV0", "other.password", "{cipher}c2VjcmV0", "plain", "value")));
+        return environment;
+    }
+}
@@ -0,0 +1,50 @@
+package org.zalando.awsspring.cloud.autoconfigure.kms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ServiceLoader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.util.ClassUtils;
+
+import io.awspring.cloud.autoconfigure.core.AwsAutoConfiguration;
+import io.awspring.cloud.autoconfigure.core.CredentialsProviderAutoConfiguration;
+import io.awspring.cloud.autoconfigure.core.RegionProviderAutoConfiguration;
+import software.amazon.awssdk.http.SdkHttpService;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService;
+import software.amazon.awssdk.services.kms.KmsAsyncClient;
+import software.amazon.awssdk.services.kms.KmsClient;
+
+/**
+ * Tests that the KMS lite starter resolves the URL connection HTTP client only.
+ */
+class KmsLiteStarterTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withPropertyValues("spring.cloud.aws.region.static:eu-west-1")
+            .withConfiguration(AutoConfigurations.of(RegionProviderAutoConfiguration.class,
+                    CredentialsProviderAutoConfiguration.class, KmsAutoConfiguration.class,
+                    AwsAutoConfiguration.class));
+
+    @Test
+    void doesNotShipApacheOrNettyHttpClients() {
+        assertThat(ClassUtils.isPresent("software.amazon.awssdk.http.apache.ApacheHttpClient", null)).isFalse();
+        assertThat(ClassUtils.isPresent("software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient", null))
+                .isFalse();
+        assertThat(ServiceLoader.load(SdkHttpService.class).stream().map(ServiceLoader.Provider::type))
+                .containsExactly(UrlConnectionSdkHttpService.class);
+    }
+
+    @Test
+    void buildsKmsClientWithUrlConnectionHttpClientOnly() {
+        this.contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).hasSingleBean(KmsClient.class);
+            assertThat(context).doesNotHaveBean(KmsAsyncClient.class);
+            assertThat(context.getBean(KmsClient.class).serviceClientConfiguration().region().id())
+                    .isEqualTo("eu-west-1");
+        });
+    }
+}